@@ -0,0 +1,219 @@
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Attracting cycle of Z -> Z^2 + C for a fixed C, with a trap around it that proves Julia Set pixels interior early.
+ * <p>
+ * If C has an attracting cycle, the orbit of the critical point 0 converges to it, so the cycle is found once per seed:
+ * the critical orbit is iterated until it settles, the period is read off, and the cycle point is refined with Newton's
+ * method.
+ * <p>
+ * The trap is a chain of disks D(k) of radius {@link #radius}[k] around the cycle points Z(k), such that
+ * f(D(k)) lies within D(k + 1), with room for rounding errors of both double and float orbits. Since
+ * |f(Z + e) - f(Z)| = |e| |2Z + e|, the radii follow r(k + 1) = r(k) (2 |Z(k)| + r(k)), and the chain closes once
+ * r(period) <= r(0). An orbit that enters D(0) then stays within the disks forever.
+ * <p>
+ * The divergence test is relative to the seed Z0 (the pixel itself, for Julia Sets), so a trapped orbit is only known to
+ * never diverge when every disk lies within the divergence distance of Z0, see {@link #isInterior(double, double, double)}.
+ * Only then does a pixel exit early, so iteration counts are unchanged.
+ * <p>
+ * For the Mandelbrot Set, C changes with every pixel, so the cycle is searched per pixel instead, from wherever its orbit
+ * is at a few checkpoints, see {@link #near(double, double, double, double, int, int)}.
+ * */
+public final class AttractingCycle {
+
+    /**
+     * Iterations of the critical orbit before looking for the cycle
+     * */
+    public static final int SEARCH_ITERATIONS = 100_000;
+
+    public static final int MAX_PERIOD = 64;
+
+    /**
+     * Distance within which the settled critical orbit is considered back to where it was
+     * */
+    private static final double PERIOD_TOLERANCE = 1e-9;
+
+    public static final int NEWTON_STEPS = 32;
+
+    /**
+     * Allowance for rounding errors of a single iteration, in absolute terms (orbits in the trap stay within |Z| < 2)
+     * */
+    private static final double ROUNDING = 0x1p-20;
+
+    private static final double MAX_TRAP_RADIUS = 0.5;
+    private static final double MIN_TRAP_RADIUS = 0x1p-16;
+
+    public final int period;
+
+    /**
+     * Cycle points Z(k), and the trap radius around each of them
+     * */
+    public final double[] re, img, radius;
+
+    /**
+     * Multiplier of the cycle: product of 2 Z(k), |multiplier| < 1
+     * */
+    public final double multiplierRe, multiplierImg;
+
+    private AttractingCycle(int period, double[] re, double[] img, double[] radius, double multiplierRe, double multiplierImg) {
+        this.period = period;
+        this.re = re;
+        this.img = img;
+        this.radius = radius;
+        this.multiplierRe = multiplierRe;
+        this.multiplierImg = multiplierImg;
+    }
+
+    /**
+     * @return the attracting cycle of Z -> Z^2 + C with a trap around it, or {@code null} if there is none (or it is too
+     * weakly attracting to be found or trapped)
+     * */
+    @Nullable
+    public static AttractingCycle find(double cre, double cimg) {
+        // Let the critical orbit settle
+        double re = 0, img = 0;
+        for (int i = 0; i < SEARCH_ITERATIONS; i++) {
+            final double nre = (re * re - img * img) + cre;
+            img = (2 * re * img) + cimg;
+            re = nre;
+
+            if (re * re + img * img > 4)
+                return null;        // escapes: no attracting cycle
+        }
+
+        // Period: first return close to the settled point
+        int period = 0;
+        double zr = re, zi = img;
+        for (int p = 1; p <= MAX_PERIOD; p++) {
+            final double nre = (zr * zr - zi * zi) + cre;
+            zi = (2 * zr * zi) + cimg;
+            zr = nre;
+
+            final double dr = zr - re, di = zi - img;
+            if (dr * dr + di * di < PERIOD_TOLERANCE * PERIOD_TOLERANCE) {
+                period = p;
+                break;
+            }
+        }
+
+        if (period == 0)
+            return null;
+
+        return near(re, img, cre, cimg, period, NEWTON_STEPS);
+    }
+
+    /**
+     * @return the attracting cycle of Z -> Z^2 + C near an orbit point Z, with a trap around it, or {@code null} if Newton's
+     * method does not land on an attracting cycle from there
+     *
+     * @param period period of the cycle. A multiple of the actual period still gives a valid trap
+     * @param newtonSteps most steps of Newton's method
+     * */
+    @Nullable
+    public static AttractingCycle near(double re, double img, double cre, double cimg, int period, int newtonSteps) {
+        // Newton's method on g(Z) = f^p(Z) - Z, with g'(Z) = product of 2 Z(k) - 1
+        for (int n = 0; n < newtonSteps; n++) {
+            double fr = re, fi = img;
+            double dr = 1, di = 0;
+            for (int k = 0; k < period; k++) {
+                final double ndr = 2 * (fr * dr - fi * di);
+                di = 2 * (fr * di + fi * dr);
+                dr = ndr;
+
+                final double nre = (fr * fr - fi * fi) + cre;
+                fi = (2 * fr * fi) + cimg;
+                fr = nre;
+            }
+
+            final double gr = fr - re, gi = fi - img;
+            final double hr = dr - 1, hi = di;
+            final double den = hr * hr + hi * hi;
+            if (den == 0)
+                break;
+
+            final double stepRe = (gr * hr + gi * hi) / den;
+            final double stepImg = (gi * hr - gr * hi) / den;
+            re -= stepRe;
+            img -= stepImg;
+
+            if (stepRe * stepRe + stepImg * stepImg < 1e-30)
+                break;
+
+            if (!(re * re + img * img < 4))
+                return null;        // cycles of bounded orbits are within |Z| < 2
+        }
+
+        // Cycle points and multiplier
+        final double[] cycleRe = new double[period];
+        final double[] cycleImg = new double[period];
+        double mr = 1, mi = 0;
+        double zr2 = re, zi2 = img;
+        for (int k = 0; k < period; k++) {
+            cycleRe[k] = zr2;
+            cycleImg[k] = zi2;
+
+            final double nmr = 2 * (zr2 * mr - zi2 * mi);
+            mi = 2 * (zr2 * mi + zi2 * mr);
+            mr = nmr;
+
+            final double nre = (zr2 * zr2 - zi2 * zi2) + cre;
+            zi2 = (2 * zr2 * zi2) + cimg;
+            zr2 = nre;
+        }
+
+        // Newton must have landed back on the cycle
+        final double er = zr2 - re, ei = zi2 - img;
+        if (!(er * er + ei * ei < PERIOD_TOLERANCE * PERIOD_TOLERANCE) || !(mr * mr + mi * mi < 1))
+            return null;
+
+        // Largest trap radius (by halving) for which the chain of disks closes
+        final double[] radius = new double[period];
+        for (double r0 = MAX_TRAP_RADIUS; r0 >= MIN_TRAP_RADIUS; r0 /= 2) {
+            double r = r0;
+            for (int k = 0; k < period; k++) {
+                radius[k] = r;
+                r = r * (2 * Math.hypot(cycleRe[k], cycleImg[k]) + r) + ROUNDING;
+            }
+
+            if (r <= r0)
+                return new AttractingCycle(period, cycleRe, cycleImg, radius, mr, mi);
+        }
+
+        return null;
+    }
+
+    /**
+     * @return whether Z is in the trap disk around the first cycle point. Orbits of the basin all pass through it
+     * */
+    public boolean isTrapped(double zre, double zimg) {
+        final double dr = zre - re[0], di = zimg - img[0];
+        return dr * dr + di * di < radius[0] * radius[0];
+    }
+
+    /**
+     * @return index of the trap disk Z is in, or -1 if none
+     * */
+    public int trapIndex(double zre, double zimg) {
+        for (int k = 0; k < period; k++) {
+            final double dr = zre - re[k], di = zimg - img[k];
+            if (dr * dr + di * di < radius[k] * radius[k])
+                return k;
+        }
+
+        return -1;
+    }
+
+    /**
+     * @return whether a trapped orbit started at Z0 never triggers the divergence test: every trap disk lies within
+     * the divergence distance of Z0
+     * */
+    public boolean isInterior(double z0re, double z0img, double divergeDistance) {
+        final double limit = divergeDistance - ROUNDING;
+        for (int k = 0; k < period; k++) {
+            if (!(Math.hypot(re[k] - z0re, img[k] - z0img) + radius[k] < limit))
+                return false;
+        }
+
+        return true;
+    }
+}
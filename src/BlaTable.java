@@ -0,0 +1,133 @@
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Bilinear approximation (BLA) table for the perturbation engine.
+ * <p>
+ * While the delta dz is small compared to the reference Z(m), one perturbation step is well approximated by a linear map:
+ * <pre>
+ *     dz(m+1) = 2 Z(m) dz(m) + dz(m)^2 + dc  ~  A dz(m) + B dc,       A = 2 Z(m), B = 1 (0 for the Julia Set)
+ * </pre>
+ * Consecutive linear steps are merged into single ones, level by level, building a hierarchy where an entry of level l
+ * jumps 2^l iterations at once. Every entry has a validity radius: the jump can be taken as long as |dz| is smaller than it.
+ * <p>
+ * The table only depends on the reference orbit and the largest |dc| of the frame, so it is cached per reference orbit.
+ * */
+public class BlaTable {
+
+    /**
+     * Relative precision target of a single linear step
+     * */
+    public static final double EPSILON = 0x1p-48;
+
+    /**
+     * Largest |dc| of the frame the table was built for
+     * */
+    public final double dcMax;
+    public final int levels;
+
+    /**
+     * Number of valid entries of each level. Entry j of level l jumps from iteration 1 + j * 2^l to 1 + (j + 1) * 2^l.
+     * Entries start at iteration 1, since Z(0) (= 0 for the default Mandelbrot seed) makes a useless linear step
+     * */
+    public final int[] count;
+    public final double[][] aRe, aImg, bRe, bImg;
+
+    /**
+     * Squared validity radius of each entry
+     * */
+    public final double[][] radiusSq;
+
+    public final long buildTimeNs;
+
+    private BlaTable(double dcMax, int levels, int[] count, double[][] aRe, double[][] aImg, double[][] bRe, double[][] bImg, double[][] radiusSq, long buildTimeNs) {
+        this.dcMax = dcMax;
+        this.levels = levels;
+        this.count = count;
+        this.aRe = aRe;
+        this.aImg = aImg;
+        this.bRe = bRe;
+        this.bImg = bImg;
+        this.radiusSq = radiusSq;
+        this.buildTimeNs = buildTimeNs;
+    }
+
+    /**
+     * Builds the table for the given reference orbit
+     *
+     * @param dcMax largest |dc| of the frame. Ignored for the Julia Set, where dc = 0
+     * */
+    @NotNull
+    public static BlaTable build(@NotNull PerturbationEngine.Reference ref, double dcMax) {
+        final long start = System.nanoTime();
+
+        final double c = ref.julia? 0: dcMax;
+        final int steps = Math.max(1, ref.length - 2);      // number of single steps available in the reference, from iteration 1
+        final int levels = 32 - Integer.numberOfLeadingZeros(steps);
+
+        final int[] count = new int[levels];
+        final double[][] aRe = new double[levels][];
+        final double[][] aImg = new double[levels][];
+        final double[][] bRe = new double[levels][];
+        final double[][] bImg = new double[levels][];
+        final double[][] radius = new double[levels][];
+
+        // Level 0: single steps
+        count[0] = steps;
+        aRe[0] = new double[steps];
+        aImg[0] = new double[steps];
+        bRe[0] = new double[steps];
+        bImg[0] = new double[steps];
+        radius[0] = new double[steps];
+
+        // R = (e |A| - |B| |dc|) / (|A| + 1)
+        for (int j = 0; j < steps; j++) {
+            final double ar = 2 * ref.re[j + 1];
+            final double ai = 2 * ref.img[j + 1];
+            final double a = Math.hypot(ar, ai);
+            aRe[0][j] = ar;
+            aImg[0][j] = ai;
+            bRe[0][j] = ref.julia? 0: 1;
+            radius[0][j] = Math.max(0, (EPSILON * a - c) / (a + 1));
+        }
+
+        // Merge pairs: x then y -> (Ay Ax, Ay Bx + By), R = min(Rx, (Ry - |Bx| |dc|) / |Ax|)
+        for (int l = 1; l < levels; l++) {
+            final int n = count[l - 1] / 2;
+            count[l] = n;
+            aRe[l] = new double[n];
+            aImg[l] = new double[n];
+            bRe[l] = new double[n];
+            bImg[l] = new double[n];
+            radius[l] = new double[n];
+
+            for (int j = 0; j < n; j++) {
+                final int x = 2 * j, y = x + 1;
+
+                final double axr = aRe[l - 1][x], axi = aImg[l - 1][x];
+                final double bxr = bRe[l - 1][x], bxi = bImg[l - 1][x];
+                final double ayr = aRe[l - 1][y], ayi = aImg[l - 1][y];
+                final double byr = bRe[l - 1][y], byi = bImg[l - 1][y];
+
+                aRe[l][j] = ayr * axr - ayi * axi;
+                aImg[l][j] = ayr * axi + ayi * axr;
+                bRe[l][j] = (ayr * bxr - ayi * bxi) + byr;
+                bImg[l][j] = (ayr * bxi + ayi * bxr) + byi;
+
+                final double ax = Math.hypot(axr, axi);
+                final double ry = ax > 0? (radius[l - 1][y] - Math.hypot(bxr, bxi) * c) / ax: 0;
+                radius[l][j] = Math.max(0, Math.min(radius[l - 1][x], ry));
+            }
+        }
+
+        final double[][] radiusSq = new double[levels][];
+        for (int l = 0; l < levels; l++) {
+            radiusSq[l] = new double[count[l]];
+            for (int j = 0; j < count[l]; j++) {
+                radiusSq[l][j] = radius[l][j] * radius[l][j];
+            }
+        }
+
+        return new BlaTable(dcMax, levels, count, aRe, aImg, bRe, bImg, radiusSq, System.nanoTime() - start);
+    }
+
+}
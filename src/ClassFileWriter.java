@@ -0,0 +1,344 @@
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal class file writer, just enough for the kernels of {@link FormulaCompiler}: a constant pool, and methods with
+ * straight bytecode and forward/backward jumps.
+ * <p>
+ * Classes are written with version 49 (Java 5), which is still verified by type inference, so methods need no
+ * stack map frames.
+ * */
+public final class ClassFileWriter {
+
+    public static final int VERSION = 49;
+
+    public static final int ACC_PUBLIC = 0x0001;
+    public static final int ACC_STATIC = 0x0008;
+    public static final int ACC_FINAL = 0x0010;
+    public static final int ACC_SUPER = 0x0020;
+
+    /* Opcodes in use */
+    public static final int ICONST_0 = 0x03;
+    public static final int DCONST_0 = 0x0e;
+    public static final int DCONST_1 = 0x0f;
+    public static final int LDC2_W = 0x14;
+    public static final int ILOAD = 0x15;
+    public static final int DLOAD = 0x18;
+    public static final int ALOAD = 0x19;
+    public static final int ISTORE = 0x36;
+    public static final int DSTORE = 0x39;
+    public static final int DALOAD = 0x31;
+    public static final int IASTORE = 0x4f;
+    public static final int DUP2 = 0x5c;
+    public static final int DADD = 0x63;
+    public static final int DSUB = 0x67;
+    public static final int DMUL = 0x6b;
+    public static final int DDIV = 0x6f;
+    public static final int DNEG = 0x77;
+    public static final int IINC = 0x84;
+    public static final int DCMPL = 0x97;
+    public static final int IFLT = 0x9b;
+    public static final int IFGE = 0x9c;
+    public static final int IF_ICMPGE = 0xa2;
+    public static final int GOTO = 0xa7;
+    public static final int IRETURN = 0xac;
+    public static final int RETURN = 0xb1;
+    public static final int GETFIELD = 0xb4;
+    public static final int INVOKESPECIAL = 0xb7;
+    public static final int INVOKESTATIC = 0xb8;
+    public static final int ARRAYLENGTH = 0xbe;
+
+    private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+    private final DataOutputStream poolOut = new DataOutputStream(pool);
+    private final Map<String, Integer> poolIndex = new HashMap<>();
+    private int poolCount = 1;
+
+    private final int thisClass, superClass;
+    private final List<Integer> interfaces = new ArrayList<>();
+    private final List<byte[]> methods = new ArrayList<>();
+
+    public ClassFileWriter(@NotNull String name, @NotNull String superName, @NotNull String... interfaceNames) {
+        thisClass = classRef(name);
+        superClass = classRef(superName);
+        for (String i: interfaceNames) {
+            interfaces.add(classRef(i));
+        }
+    }
+
+    /* Constant pool */
+
+    private int entry(@NotNull String key, int slots, @NotNull IOWriter writer) {
+        final Integer index = poolIndex.get(key);
+        if (index != null)
+            return index;
+
+        try {
+            writer.write(poolOut);
+        } catch (IOException exc) {
+            throw new IllegalStateException(exc);
+        }
+
+        final int i = poolCount;
+        poolCount += slots;
+        poolIndex.put(key, i);
+        return i;
+    }
+
+    public int utf8(@NotNull String value) {
+        return entry("U" + value, 1, out -> {
+            out.writeByte(1);
+            out.writeUTF(value);
+        });
+    }
+
+    public int classRef(@NotNull String internalName) {
+        final int name = utf8(internalName);
+        return entry("C" + internalName, 1, out -> {
+            out.writeByte(7);
+            out.writeShort(name);
+        });
+    }
+
+    public int doubleConst(double value) {
+        return entry("D" + Double.doubleToRawLongBits(value), 2, out -> {
+            out.writeByte(6);
+            out.writeDouble(value);
+        });
+    }
+
+    private int nameAndType(@NotNull String name, @NotNull String descriptor) {
+        final int n = utf8(name), d = utf8(descriptor);
+        return entry("N" + name + ":" + descriptor, 1, out -> {
+            out.writeByte(12);
+            out.writeShort(n);
+            out.writeShort(d);
+        });
+    }
+
+    private int memberRef(int tag, @NotNull String owner, @NotNull String name, @NotNull String descriptor) {
+        final int c = classRef(owner), nt = nameAndType(name, descriptor);
+        return entry(tag + owner + "." + name + ":" + descriptor, 1, out -> {
+            out.writeByte(tag);
+            out.writeShort(c);
+            out.writeShort(nt);
+        });
+    }
+
+    public int fieldRef(@NotNull String owner, @NotNull String name, @NotNull String descriptor) {
+        return memberRef(9, owner, name, descriptor);
+    }
+
+    public int methodRef(@NotNull String owner, @NotNull String name, @NotNull String descriptor) {
+        return memberRef(10, owner, name, descriptor);
+    }
+
+    /* Methods */
+
+    @NotNull
+    public Code method(int access, @NotNull String name, @NotNull String descriptor) {
+        return new Code(access, utf8(name), utf8(descriptor));
+    }
+
+    @NotNull
+    public byte[] toByteArray() {
+        try {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final DataOutputStream out = new DataOutputStream(bytes);
+            final int code = utf8("Code");
+
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(VERSION);
+            out.writeShort(poolCount);
+            pool.writeTo(out);
+
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(interfaces.size());
+            for (int i: interfaces) {
+                out.writeShort(i);
+            }
+
+            out.writeShort(0);      // fields
+            out.writeShort(methods.size());
+            for (byte[] m: methods) {
+                out.write(m, 0, 2 + 2 + 2 + 2);     // access, name, descriptor, attributes count
+                out.writeShort(code);
+                out.write(m, 8, m.length - 8);
+            }
+
+            out.writeShort(0);      // attributes
+            return bytes.toByteArray();
+        } catch (IOException exc) {
+            throw new IllegalStateException(exc);
+        }
+    }
+
+    @FunctionalInterface
+    private interface IOWriter {
+        void write(@NotNull DataOutputStream out) throws IOException;
+    }
+
+
+    /**
+     * Jump target. Jumps to a label that is not placed yet are patched when it is
+     * */
+    public static final class Label {
+        private int offset = -1;
+        private final List<Integer> jumps = new ArrayList<>();       // offsets of jump opcodes to patch
+    }
+
+    /**
+     * Bytecode of a single method. Finished with {@link #end(int, int)}
+     * */
+    public final class Code {
+
+        private final int access, name, descriptor;
+        private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+
+        private Code(int access, int name, int descriptor) {
+            this.access = access;
+            this.name = name;
+            this.descriptor = descriptor;
+        }
+
+        private void u1(int value) {
+            code.write(value);
+        }
+
+        private void u2(int value) {
+            code.write(value >>> 8);
+            code.write(value);
+        }
+
+        public void op(int opcode) {
+            u1(opcode);
+        }
+
+        /**
+         * Local variable instruction, in the wide form when needed
+         * */
+        public void local(int opcode, int index) {
+            if (index > 0xff) {
+                u1(0xc4);       // wide
+                u1(opcode);
+                u2(index);
+            } else {
+                u1(opcode);
+                u1(index);
+            }
+        }
+
+        public void iinc(int index, int increment) {
+            if (index > 0xff || increment < Byte.MIN_VALUE || increment > Byte.MAX_VALUE) {
+                u1(0xc4);
+                u1(IINC);
+                u2(index);
+                u2(increment);
+            } else {
+                u1(IINC);
+                u1(index);
+                u1(increment);
+            }
+        }
+
+        public void ldc(double value) {
+            if (Double.doubleToRawLongBits(value) == 0) {
+                u1(DCONST_0);
+            } else if (value == 1) {
+                u1(DCONST_1);
+            } else {
+                u1(LDC2_W);
+                u2(doubleConst(value));
+            }
+        }
+
+        /**
+         * Field, method and class instructions, with a constant pool index operand
+         * */
+        public void ref(int opcode, int poolIndex) {
+            u1(opcode);
+            u2(poolIndex);
+        }
+
+        /**
+         * Branch instruction with a 16 bit offset. Does not emit {@code goto_w}: the offset must fit a signed short
+         *
+         * @throws IllegalArgumentException if the target is out of the range of a 16 bit offset, checked once the
+         * target is placed for forward jumps
+         * */
+        public void jump(int opcode, @NotNull Label target) throws IllegalArgumentException {
+            final int at = code.size();
+            u1(opcode);
+            if (target.offset >= 0) {
+                u2(checkJumpOffset(target.offset - at));
+            } else {
+                target.jumps.add(at);
+                u2(0);
+            }
+        }
+
+        /**
+         * Places the label at the current offset, and patches the pending jumps to it
+         *
+         * @throws IllegalArgumentException if a pending jump is out of the range of a 16 bit offset
+         * */
+        public void place(@NotNull Label label) throws IllegalArgumentException {
+            label.offset = code.size();
+            if (label.jumps.isEmpty())
+                return;
+
+            final byte[] bytes = code.toByteArray();
+            for (int at: label.jumps) {
+                final int delta = checkJumpOffset(label.offset - at);
+                bytes[at + 1] = (byte) (delta >>> 8);
+                bytes[at + 2] = (byte) delta;
+            }
+
+            label.jumps.clear();
+            code.reset();
+            code.write(bytes, 0, bytes.length);
+        }
+
+        private static int checkJumpOffset(int delta) throws IllegalArgumentException {
+            if (delta < Short.MIN_VALUE || delta > Short.MAX_VALUE)
+                throw new IllegalArgumentException("Jump offset out of range: " + delta + " bytes, method too large");
+
+            return delta;
+        }
+
+        public void end(int maxStack, int maxLocals) {
+            if (code.size() > 0xffff)
+                throw new IllegalArgumentException("Method too large");
+
+            final ByteArrayOutputStream m = new ByteArrayOutputStream();
+            final DataOutputStream out = new DataOutputStream(m);
+            try {
+                out.writeShort(access);
+                out.writeShort(name);
+                out.writeShort(descriptor);
+                out.writeShort(1);      // attributes: Code, name index written by toByteArray
+
+                out.writeInt(2 + 2 + 4 + code.size() + 2 + 2);
+                out.writeShort(maxStack);
+                out.writeShort(maxLocals);
+                out.writeInt(code.size());
+                code.writeTo(out);
+                out.writeShort(0);      // exception table
+                out.writeShort(0);      // attributes
+            } catch (IOException exc) {
+                throw new IllegalStateException(exc);
+            }
+
+            methods.add(m.toByteArray());
+        }
+    }
+}
@@ -53,6 +53,10 @@ public class Complex {
         this.img = img;
     }
 
+    public boolean isZero() {
+        return re == 0 && img == 0;
+    }
+
     public double modSq() {
         return re * re + img * img;
     }
@@ -0,0 +1,13 @@
+/**
+ * Exterior distance estimate of a single pixel of the current frame
+ * */
+@FunctionalInterface
+public interface DistanceEstimator {
+
+    /**
+     * @return estimated lower bound of the distance from the pixel to the set, in pixels. 0 if the pixel is inside the
+     * set, or its distance is unknown
+     * */
+    double exteriorDistance(int x, int y);
+
+}
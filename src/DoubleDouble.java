@@ -0,0 +1,105 @@
+/**
+ * Double-double arithmetic: a value is the unevaluated sum hi + lo of two doubles, with |lo| <= ulp(hi) / 2, giving
+ * about 106 bits of precision.
+ * <p>
+ * This covers the zoom range between where plain doubles run out (around 1e-14) and where a perturbation reference
+ * orbit pays off. Everything here works on primitives, so the kernel never allocates. Helpers come in hi/lo pairs,
+ * since Java has no multiple return values; the JIT inlines them.
+ * */
+public class DoubleDouble {
+
+    /**
+     * @return rounding error of {@code s = a + b}, such that a + b = s + error exactly
+     * */
+    public static double twoSumLo(double a, double b, double s) {
+        final double v = s - a;
+        return (a - (s - v)) + (b - v);
+    }
+
+    /**
+     * Viewport mapping: the pixel coordinate is the double-double view origin plus the pixel's double offset from it.
+     * The offset comes from the origin-relative view bounds, so it is already accurate to the pixel
+     *
+     * @return hi part of (originHi + originLo) + offset
+     * */
+    public static double mapHi(double originHi, double originLo, double offset) {
+        final double s = originHi + offset;
+        return s + (twoSumLo(originHi, offset, s) + originLo);
+    }
+
+    /**
+     * @param hi result of {@link #mapHi(double, double, double)} for the same arguments
+     * @return lo part of (originHi + originLo) + offset
+     * */
+    public static double mapLo(double originHi, double originLo, double offset, double hi) {
+        final double s = originHi + offset;
+        final double e = twoSumLo(originHi, offset, s) + originLo;
+        return e - (hi - s);
+    }
+
+    /**
+     * Double-double variant of {@link Main#iterateMandelbrot(Complex, Complex, int, double)}: Z(n+1) = Z(n)^2 + C.
+     * The divergence test only needs the hi parts.
+     *
+     * @return the escape-time iteration count
+     * */
+    public static int iterateMandelbrot(double z0ReHi, double z0ReLo, double z0ImgHi, double z0ImgLo,
+                                        double cReHi, double cReLo, double cImgHi, double cImgLo,
+                                        int maxIterations, double divergeDistance) {
+        final double dsq = divergeDistance * divergeDistance;
+        int itr = 0;
+
+        double reHi = z0ReHi, reLo = z0ReLo;
+        double imgHi = z0ImgHi, imgLo = z0ImgLo;
+
+        while (itr < maxIterations) {
+            // re^2, exact product of the hi parts via fma, plus the cross terms
+            double p = reHi * reHi;
+            double e = Math.fma(reHi, reHi, -p) + 2 * reHi * reLo;
+            final double rrHi = p + e;
+            final double rrLo = e - (rrHi - p);
+
+            // img^2
+            p = imgHi * imgHi;
+            e = Math.fma(imgHi, imgHi, -p) + 2 * imgHi * imgLo;
+            final double iiHi = p + e;
+            final double iiLo = e - (iiHi - p);
+
+            // 2 re img
+            p = 2 * reHi * imgHi;
+            e = 2 * (Math.fma(reHi, imgHi, -p / 2) + (reHi * imgLo + reLo * imgHi));
+            final double riHi = p + e;
+            final double riLo = e - (riHi - p);
+
+            // nre = re^2 - img^2 + c.re
+            double s = rrHi - iiHi;
+            e = twoSumLo(rrHi, -iiHi, s) + (rrLo - iiLo);
+            double t = s + e;
+            e = e - (t - s);
+            s = t + cReHi;
+            e = twoSumLo(t, cReHi, s) + (e + cReLo);
+            final double nreHi = s + e;
+            final double nreLo = e - (nreHi - s);
+
+            // nimg = 2 re img + c.img
+            s = riHi + cImgHi;
+            e = twoSumLo(riHi, cImgHi, s) + (riLo + cImgLo);
+            final double nimgHi = s + e;
+            final double nimgLo = e - (nimgHi - s);
+
+            // If distance of new point from the seed is greater than divergenceDistance, break
+            final double re_temp = nreHi - z0ReHi;
+            final double img_temp = nimgHi - z0ImgHi;
+            if ((re_temp * re_temp + img_temp * img_temp) >= dsq)
+                break;      // diverges
+
+            reHi = nreHi;
+            reLo = nreLo;
+            imgHi = nimgHi;
+            imgLo = nimgLo;
+            itr++;
+        }
+
+        return itr;
+    }
+}
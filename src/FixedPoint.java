@@ -0,0 +1,310 @@
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Mutable arbitrary precision fixed-point number.
+ * <p>
+ * Stored in sign-magnitude form, as 32-bit limbs in little-endian order: the most significant limb is the integer part,
+ * the rest are fractional. The number of limbs is fixed at construction, and all operations write into {@code this}
+ * without allocating, which makes it far cheaper than {@link BigDecimal} for long iteration loops like reference orbits.
+ * <p>
+ * The integer part is a single limb, so values must stay in (-2^32, 2^32). Operands may alias {@code this}.
+ * */
+public class FixedPoint implements Comparable<FixedPoint> {
+
+    public static final int LIMB_BITS = 32;
+    private static final long MASK = 0xFFFFFFFFL;
+    private static final double LOG2_10 = Math.log(10) / Math.log(2);
+
+    /**
+     * @return number of fractional limbs needed for the given number of decimal digits, with one guard limb
+     * */
+    public static int fractionalLimbsFor(int decimalDigits) {
+        return (int) Math.ceil(decimalDigits * LOG2_10 / LIMB_BITS) + 1;
+    }
+
+
+    public final int fractionalLimbs;
+    private final int limbs;
+    private final int[] mag;
+    private boolean negative;
+
+    // Product scratch, 2 * limbs
+    private final int[] product;
+
+    public FixedPoint(int fractionalLimbs) {
+        if (fractionalLimbs < 1)
+            throw new IllegalArgumentException("Fixed point needs at least 1 fractional limb, given: " + fractionalLimbs);
+
+        this.fractionalLimbs = fractionalLimbs;
+        limbs = fractionalLimbs + 1;
+        mag = new int[limbs];
+        product = new int[limbs * 2];
+    }
+
+    private void checkCompatible(@NotNull FixedPoint o) {
+        if (o.limbs != limbs)
+            throw new IllegalArgumentException("Fixed point limb count mismatch: " + limbs + " and " + o.limbs);
+    }
+
+    public boolean isZero() {
+        for (int limb: mag) {
+            if (limb != 0)
+                return false;
+        }
+
+        return true;
+    }
+
+    public boolean isNegative() {
+        return negative;
+    }
+
+    @NotNull
+    public FixedPoint setZero() {
+        for (int i = 0; i < limbs; i++) {
+            mag[i] = 0;
+        }
+
+        negative = false;
+        return this;
+    }
+
+    @NotNull
+    public FixedPoint set(@NotNull FixedPoint o) {
+        checkCompatible(o);
+        if (o != this) {
+            System.arraycopy(o.mag, 0, mag, 0, limbs);
+            negative = o.negative;
+        }
+
+        return this;
+    }
+
+    @NotNull
+    public FixedPoint set(@NotNull BigDecimal value) {
+        final BigInteger scaled = value.abs().multiply(new BigDecimal(BigInteger.ONE.shiftLeft(LIMB_BITS * fractionalLimbs)))
+                .setScale(0, RoundingMode.DOWN)
+                .toBigInteger();
+
+        for (int i = 0; i < limbs; i++) {
+            mag[i] = scaled.shiftRight(LIMB_BITS * i).intValue();
+        }
+
+        negative = value.signum() < 0 && !isZero();
+        return this;
+    }
+
+    @NotNull
+    public FixedPoint set(double value) {
+        return set(new BigDecimal(value));
+    }
+
+    /**
+     * this = a + b
+     * */
+    @NotNull
+    public FixedPoint add(@NotNull FixedPoint a, @NotNull FixedPoint b) {
+        return addSigned(a, a.negative, b, b.negative);
+    }
+
+    /**
+     * this = a - b
+     * */
+    @NotNull
+    public FixedPoint subtract(@NotNull FixedPoint a, @NotNull FixedPoint b) {
+        return addSigned(a, a.negative, b, !b.negative);
+    }
+
+    private FixedPoint addSigned(@NotNull FixedPoint a, boolean aNeg, @NotNull FixedPoint b, boolean bNeg) {
+        checkCompatible(a);
+        checkCompatible(b);
+
+        if (aNeg == bNeg) {
+            long carry = 0;
+            for (int i = 0; i < limbs; i++) {
+                final long t = (a.mag[i] & MASK) + (b.mag[i] & MASK) + carry;
+                mag[i] = (int) t;
+                carry = t >>> LIMB_BITS;
+            }
+
+            negative = aNeg;
+        } else {
+            final int cmp = compareMagnitude(a, b);
+            final FixedPoint big = cmp >= 0? a: b;
+            final FixedPoint small = cmp >= 0? b: a;
+            final boolean resNeg = cmp >= 0? aNeg: bNeg;
+
+            long borrow = 0;
+            for (int i = 0; i < limbs; i++) {
+                final long t = (big.mag[i] & MASK) - (small.mag[i] & MASK) - borrow;
+                mag[i] = (int) t;
+                borrow = (t >> LIMB_BITS) & 1;
+            }
+
+            negative = resNeg && cmp != 0;
+        }
+
+        return this;
+    }
+
+    /**
+     * this = a * b
+     * */
+    @NotNull
+    public FixedPoint multiply(@NotNull FixedPoint a, @NotNull FixedPoint b) {
+        checkCompatible(a);
+        checkCompatible(b);
+
+        final int[] r = product;
+        final int n = limbs;
+        for (int i = 0; i < r.length; i++) {
+            r[i] = 0;
+        }
+
+        for (int i = 0; i < n; i++) {
+            final long ai = a.mag[i] & MASK;
+            if (ai == 0)
+                continue;
+
+            long carry = 0;
+            for (int j = 0; j < n; j++) {
+                final long t = ai * (b.mag[j] & MASK) + (r[i + j] & MASK) + carry;
+                r[i + j] = (int) t;
+                carry = t >>> LIMB_BITS;
+            }
+
+            r[i + n] = (int) carry;
+        }
+
+        final boolean resNeg = a.negative != b.negative;
+        System.arraycopy(r, fractionalLimbs, mag, 0, n);
+        negative = resNeg && !isZero();
+        return this;
+    }
+
+    /**
+     * this = a^2. Cross products are only computed once, so this is about twice as fast as {@link #multiply(FixedPoint, FixedPoint) multiply(a, a)}
+     * */
+    @NotNull
+    public FixedPoint square(@NotNull FixedPoint a) {
+        checkCompatible(a);
+
+        final int[] r = product;
+        final int n = limbs;
+        for (int i = 0; i < r.length; i++) {
+            r[i] = 0;
+        }
+
+        // Cross products a(i) a(j), i < j
+        for (int i = 0; i < n; i++) {
+            final long ai = a.mag[i] & MASK;
+            long carry = 0;
+            if (ai != 0) {
+                for (int j = i + 1; j < n; j++) {
+                    final long t = ai * (a.mag[j] & MASK) + (r[i + j] & MASK) + carry;
+                    r[i + j] = (int) t;
+                    carry = t >>> LIMB_BITS;
+                }
+            }
+
+            r[i + n] = (int) carry;
+        }
+
+        // Double them
+        for (int k = r.length - 1; k > 0; k--) {
+            r[k] = (r[k] << 1) | (r[k - 1] >>> 31);
+        }
+        r[0] <<= 1;
+
+        // Add the diagonal squares a(i)^2
+        long carry = 0;
+        for (int i = 0; i < n; i++) {
+            final long ai = a.mag[i] & MASK;
+            final long sq = ai * ai;
+
+            long t = (r[2 * i] & MASK) + (sq & MASK) + carry;
+            r[2 * i] = (int) t;
+            carry = t >>> LIMB_BITS;
+
+            t = (r[2 * i + 1] & MASK) + (sq >>> LIMB_BITS) + carry;
+            r[2 * i + 1] = (int) t;
+            carry = t >>> LIMB_BITS;
+        }
+
+        System.arraycopy(r, fractionalLimbs, mag, 0, n);
+        negative = false;
+        return this;
+    }
+
+    /**
+     * this = this * 2
+     * */
+    @NotNull
+    public FixedPoint shiftLeft1() {
+        for (int k = limbs - 1; k > 0; k--) {
+            mag[k] = (mag[k] << 1) | (mag[k - 1] >>> 31);
+        }
+
+        mag[0] <<= 1;
+        return this;
+    }
+
+    public static int compareMagnitude(@NotNull FixedPoint a, @NotNull FixedPoint b) {
+        for (int i = a.limbs - 1; i >= 0; i--) {
+            final int cmp = Integer.compareUnsigned(a.mag[i], b.mag[i]);
+            if (cmp != 0)
+                return cmp;
+        }
+
+        return 0;
+    }
+
+    @Override
+    public int compareTo(@NotNull FixedPoint o) {
+        checkCompatible(o);
+
+        if (negative != o.negative)
+            return negative? -1: 1;
+
+        final int cmp = compareMagnitude(this, o);
+        return negative? -cmp: cmp;
+    }
+
+    public double doubleValue() {
+        int top = limbs - 1;
+        while (top >= 0 && mag[top] == 0) {
+            top--;
+        }
+
+        if (top < 0)
+            return 0;
+
+        // Top 3 limbs are more than enough for the 53 bits of a double
+        double value = 0;
+        for (int i = top; i >= Math.max(0, top - 2); i--) {
+            value += Math.scalb((double) (mag[i] & MASK), LIMB_BITS * (i - fractionalLimbs));
+        }
+
+        return negative? -value: value;
+    }
+
+    @NotNull
+    public BigDecimal toBigDecimal() {
+        BigInteger value = BigInteger.ZERO;
+        for (int i = limbs - 1; i >= 0; i--) {
+            value = value.shiftLeft(LIMB_BITS).or(BigInteger.valueOf(mag[i] & MASK));
+        }
+
+        final BigDecimal res = new BigDecimal(value).divide(new BigDecimal(BigInteger.ONE.shiftLeft(LIMB_BITS * fractionalLimbs)));
+        return negative? res.negate(): res;
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toString();
+    }
+}
@@ -0,0 +1,104 @@
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+
+/**
+ * Mutable arbitrary precision fixed-point complex number, for computing reference orbits without allocation.
+ *
+ * @see FixedPoint
+ * */
+public class FixedPointComplex {
+
+    @NotNull
+    public final FixedPoint re;
+    @NotNull
+    public final FixedPoint img;
+
+    // Scratch
+    private final FixedPoint reSq, imgSq, sum;
+
+    public FixedPointComplex(int fractionalLimbs) {
+        re = new FixedPoint(fractionalLimbs);
+        img = new FixedPoint(fractionalLimbs);
+
+        reSq = new FixedPoint(fractionalLimbs);
+        imgSq = new FixedPoint(fractionalLimbs);
+        sum = new FixedPoint(fractionalLimbs);
+    }
+
+    @NotNull
+    public FixedPointComplex set(@NotNull BigDecimal re, @NotNull BigDecimal img) {
+        this.re.set(re);
+        this.img.set(img);
+        return this;
+    }
+
+    @NotNull
+    public FixedPointComplex set(@NotNull FixedPointComplex o) {
+        re.set(o.re);
+        img.set(o.img);
+        return this;
+    }
+
+    /**
+     * this = this^2, with three real squarings:
+     * <pre>
+     *     re = re^2 - img^2,    img = (re + img)^2 - re^2 - img^2
+     * </pre>
+     * */
+    @NotNull
+    public FixedPointComplex square() {
+        reSq.square(re);
+        imgSq.square(img);
+        sum.add(re, img);
+        sum.square(sum);
+
+        img.subtract(sum, reSq);
+        img.subtract(img, imgSq);
+        re.subtract(reSq, imgSq);
+        return this;
+    }
+
+    /**
+     * this = this + c
+     * */
+    @NotNull
+    public FixedPointComplex add(@NotNull FixedPointComplex c) {
+        re.add(re, c.re);
+        img.add(img, c.img);
+        return this;
+    }
+
+    /**
+     * this = this^2 + c
+     * */
+    @NotNull
+    public FixedPointComplex squareAdd(@NotNull FixedPointComplex c) {
+        return square().add(c);
+    }
+
+    /**
+     * Compares |this|^2 against the given bound
+     *
+     * @param boundSq squared bound, with the same number of limbs
+     * */
+    public int compareNormSq(@NotNull FixedPoint boundSq) {
+        sum.square(re);
+        imgSq.square(img);
+        sum.add(sum, imgSq);
+        return sum.compareTo(boundSq);
+    }
+
+    public double reDouble() {
+        return re.doubleValue();
+    }
+
+    public double imgDouble() {
+        return img.doubleValue();
+    }
+
+    @Override
+    public String toString() {
+        return re + " " + (img.isNegative()? "-": "+") + " " + img.toBigDecimal().abs() + "i";
+    }
+}
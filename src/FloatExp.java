@@ -0,0 +1,232 @@
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
+/**
+ * Immutable extended range floating point number: a double mantissa with a separate int exponent.
+ * <p>
+ * Value = mantissa * 2^exponent, with |mantissa| in [1, 2) (or 0). It keeps the 53 bits of precision of a double, but
+ * its range is not limited to [1e-308, 1e308], which is what view scales and pixel deltas need past that zoom.
+ *
+ * @see FloatExpComplex
+ * */
+public final class FloatExp implements Comparable<FloatExp> {
+
+    public static final FloatExp ZERO = new FloatExp(0, 0);
+    public static final FloatExp ONE = new FloatExp(1, 0);
+
+    private static final double LOG10_2 = Math.log10(2);
+    private static final MathContext DIVISION_CONTEXT = new MathContext(20);
+
+    /**
+     * Exponent difference beyond which the smaller operand of an addition is lost entirely
+     * */
+    static final int ADD_EXPONENT_CUTOFF = 64;
+
+    @NotNull
+    public static FloatExp of(double value) {
+        return of(value, 0);
+    }
+
+    /**
+     * @return value * 2^exponent
+     * */
+    @NotNull
+    public static FloatExp of(double value, int exponent) {
+        if (value == 0)
+            return ZERO;
+        if (!Double.isFinite(value))
+            throw new ArithmeticException("FloatExp of non-finite value: " + value);
+
+        final int e = Math.getExponent(value);
+        if (e < Double.MIN_EXPONENT) {
+            // Subnormal, renormalize in two steps
+            final double norm = value * 0x1p64;
+            final int ne = Math.getExponent(norm);
+            return new FloatExp(Math.scalb(norm, -ne), exponent + ne - 64);
+        }
+
+        return new FloatExp(Math.scalb(value, -e), exponent + e);
+    }
+
+    @NotNull
+    public static FloatExp of(@NotNull BigDecimal value) {
+        if (value.signum() == 0)
+            return ZERO;
+
+        // Binary exponent estimate, then scale by an exact power of two to bring the value near 1
+        final int e = (int) Math.floor((value.precision() - value.scale()) / LOG10_2);
+        final BigDecimal scaled = e >= 0?
+                value.divide(new BigDecimal(BigInteger.ONE.shiftLeft(e)), DIVISION_CONTEXT) :
+                value.multiply(new BigDecimal(BigInteger.ONE.shiftLeft(-e)));
+
+        return of(scaled.doubleValue(), e);
+    }
+
+
+    public final double mantissa;
+    public final int exponent;
+
+    private FloatExp(double mantissa, int exponent) {
+        this.mantissa = mantissa;
+        this.exponent = mantissa == 0? 0: exponent;
+    }
+
+    public boolean isZero() {
+        return mantissa == 0;
+    }
+
+    public int signum() {
+        return (int) Math.signum(mantissa);
+    }
+
+    @NotNull
+    public FloatExp negate() {
+        return new FloatExp(-mantissa, exponent);
+    }
+
+    @NotNull
+    public FloatExp abs() {
+        return mantissa < 0? negate(): this;
+    }
+
+    @NotNull
+    public FloatExp add(@NotNull FloatExp o) {
+        if (o.mantissa == 0)
+            return this;
+        if (mantissa == 0)
+            return o;
+
+        final int d = exponent - o.exponent;
+        if (d > ADD_EXPONENT_CUTOFF)
+            return this;
+        if (d < -ADD_EXPONENT_CUTOFF)
+            return o;
+
+        return d >= 0?
+                of(mantissa + Math.scalb(o.mantissa, -d), exponent) :
+                of(Math.scalb(mantissa, d) + o.mantissa, o.exponent);
+    }
+
+    @NotNull
+    public FloatExp subtract(@NotNull FloatExp o) {
+        return add(o.negate());
+    }
+
+    @NotNull
+    public FloatExp multiply(@NotNull FloatExp o) {
+        return of(mantissa * o.mantissa, exponent + o.exponent);
+    }
+
+    @NotNull
+    public FloatExp multiply(double value) {
+        return multiply(of(value));
+    }
+
+    @NotNull
+    public FloatExp divide(@NotNull FloatExp o) {
+        if (o.mantissa == 0)
+            throw new ArithmeticException("FloatExp division by zero");
+
+        return of(mantissa / o.mantissa, exponent - o.exponent);
+    }
+
+    @NotNull
+    public FloatExp divide(double value) {
+        return divide(of(value));
+    }
+
+    /**
+     * @return this * 2^n
+     * */
+    @NotNull
+    public FloatExp scalb(int n) {
+        return new FloatExp(mantissa, exponent + n);
+    }
+
+    /**
+     * @return the nearest double, which underflows to 0 or overflows to infinity outside the double range
+     * */
+    public double doubleValue() {
+        if (exponent > Double.MAX_EXPONENT + 1)
+            return mantissa > 0? Double.POSITIVE_INFINITY: mantissa < 0? Double.NEGATIVE_INFINITY: 0;
+        if (exponent < Double.MIN_EXPONENT - 60)
+            return 0;
+
+        return Math.scalb(mantissa, exponent);
+    }
+
+    /**
+     * @return log10(|this|), or negative infinity for 0
+     * */
+    public double log10() {
+        return mantissa == 0? Double.NEGATIVE_INFINITY: Math.log10(Math.abs(mantissa)) + exponent * LOG10_2;
+    }
+
+    /**
+     * @return the exact value of this number, rounded to the given context
+     * */
+    @NotNull
+    public BigDecimal toBigDecimal(@NotNull MathContext mc) {
+        if (mantissa == 0)
+            return BigDecimal.ZERO;
+
+        final BigDecimal m = new BigDecimal(mantissa);
+        if (exponent >= 0)
+            return m.multiply(new BigDecimal(BigInteger.ONE.shiftLeft(exponent)), mc);
+
+        // m / 2^k = m * 5^k / 10^k, exact
+        final int k = -exponent;
+        return m.multiply(new BigDecimal(BigInteger.valueOf(5).pow(k)), mc).scaleByPowerOfTen(-k);
+    }
+
+    @Override
+    public int compareTo(@NotNull FloatExp o) {
+        final int s = signum(), os = o.signum();
+        if (s != os)
+            return Integer.compare(s, os);
+        if (s == 0)
+            return 0;
+
+        final int cmp = exponent != o.exponent? Integer.compare(exponent, o.exponent): Double.compare(Math.abs(mantissa), Math.abs(o.mantissa));
+        return s > 0? cmp: -cmp;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof FloatExp f && mantissa == f.mantissa && exponent == f.exponent);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Double.hashCode(mantissa) + exponent;
+    }
+
+    /**
+     * @return this number in scientific notation, with the given number of fraction digits
+     * */
+    @NotNull
+    public String format(int fractionDigits) {
+        if (mantissa == 0)
+            return String.format("%." + fractionDigits + "fe+00", 0.0);
+
+        final double log = log10();
+        long decExp = (long) Math.floor(log);
+        double m = Math.pow(10, log - decExp);
+
+        // Rounding may carry into the next decade
+        if (Double.parseDouble(String.format("%." + fractionDigits + "f", m)) >= 10) {
+            m /= 10;
+            decExp++;
+        }
+
+        return String.format("%s%." + fractionDigits + "fe%+03d", mantissa < 0? "-": "", m, decExp);
+    }
+
+    @Override
+    public String toString() {
+        return format(3);
+    }
+}
@@ -0,0 +1,203 @@
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Mutable extended range complex number: double mantissas for both parts, with a single shared int exponent.
+ * <p>
+ * Value = (re + img i) * 2^exp, normalized so that the larger part is in [1, 2) in magnitude. Sharing the exponent keeps
+ * multiplication as cheap as with plain doubles, since the smaller part only matters within 53 bits of the larger one.
+ * All operations write into {@code this} without allocating, for the per-pixel loop of extreme zooms.
+ *
+ * @see FloatExp
+ * */
+public final class FloatExpComplex {
+
+    /**
+     * Exponent of zero, lower than that of any non-zero value
+     * */
+    public static final int ZERO_EXPONENT = Integer.MIN_VALUE / 2;
+
+    public double re, img;
+    public int exp = ZERO_EXPONENT;
+
+    @NotNull
+    public FloatExpComplex setZero() {
+        re = img = 0;
+        exp = ZERO_EXPONENT;
+        return this;
+    }
+
+    @NotNull
+    public FloatExpComplex set(double re, double img) {
+        return set(re, img, 0);
+    }
+
+    /**
+     * this = (re + img i) * 2^exp
+     * */
+    @NotNull
+    public FloatExpComplex set(double re, double img, int exp) {
+        this.re = re;
+        this.img = img;
+        this.exp = exp;
+        return normalize();
+    }
+
+    @NotNull
+    public FloatExpComplex set(@NotNull FloatExp re, @NotNull FloatExp img) {
+        if (re.isZero() && img.isZero())
+            return setZero();
+
+        final int e = img.isZero() || (!re.isZero() && re.exponent >= img.exponent)? re.exponent: img.exponent;
+        return set(scaleTo(re.mantissa, re.exponent, e), scaleTo(img.mantissa, img.exponent, e), e);
+    }
+
+    @NotNull
+    public FloatExpComplex set(@NotNull FloatExpComplex o) {
+        re = o.re;
+        img = o.img;
+        exp = o.exp;
+        return this;
+    }
+
+    private static double scaleTo(double mantissa, int exponent, int targetExponent) {
+        final int d = exponent - targetExponent;
+        return d < -FloatExp.ADD_EXPONENT_CUTOFF? 0: Math.scalb(mantissa, d);
+    }
+
+    @NotNull
+    private FloatExpComplex normalize() {
+        final double m = Math.max(Math.abs(re), Math.abs(img));
+        if (m == 0) {
+            re = img = 0;
+            exp = ZERO_EXPONENT;
+            return this;
+        }
+
+        int e = Math.getExponent(m);
+        if (e < Double.MIN_EXPONENT) {
+            // Subnormal
+            re *= 0x1p64;
+            img *= 0x1p64;
+            exp -= 64;
+            e = Math.getExponent(Math.max(Math.abs(re), Math.abs(img)));
+        }
+
+        if (e != 0) {
+            re = Math.scalb(re, -e);
+            img = Math.scalb(img, -e);
+            exp += e;
+        }
+
+        return this;
+    }
+
+    public boolean isZero() {
+        return re == 0 && img == 0;
+    }
+
+    /**
+     * this = this + o
+     * */
+    @NotNull
+    public FloatExpComplex add(@NotNull FloatExpComplex o) {
+        if (o.isZero())
+            return this;
+        if (isZero())
+            return set(o);
+
+        final int d = exp - o.exp;
+        if (d > FloatExp.ADD_EXPONENT_CUTOFF)
+            return this;
+        if (d < -FloatExp.ADD_EXPONENT_CUTOFF)
+            return set(o);
+
+        if (d >= 0) {
+            re += Math.scalb(o.re, -d);
+            img += Math.scalb(o.img, -d);
+        } else {
+            re = Math.scalb(re, d) + o.re;
+            img = Math.scalb(img, d) + o.img;
+            exp = o.exp;
+        }
+
+        return normalize();
+    }
+
+    /**
+     * this = this + (re + img i), for plain double operands
+     * */
+    @NotNull
+    public FloatExpComplex add(double re, double img) {
+        if (re == 0 && img == 0)
+            return this;
+
+        final int e = Math.getExponent(Math.max(Math.abs(re), Math.abs(img)));
+        if (isZero() || e - exp > FloatExp.ADD_EXPONENT_CUTOFF)
+            return set(re, img);
+
+        final int d = exp - e;
+        if (d > FloatExp.ADD_EXPONENT_CUTOFF)
+            return this;
+
+        if (d >= 0) {
+            this.re += Math.scalb(re, -exp);
+            this.img += Math.scalb(img, -exp);
+        } else {
+            this.re = Math.scalb(this.re, d) + Math.scalb(re, -e);
+            this.img = Math.scalb(this.img, d) + Math.scalb(img, -e);
+            exp = e;
+        }
+
+        return normalize();
+    }
+
+    /**
+     * this = this * o
+     * */
+    @NotNull
+    public FloatExpComplex multiply(@NotNull FloatExpComplex o) {
+        final double r = re * o.re - img * o.img;
+        img = re * o.img + img * o.re;
+        re = r;
+        exp += o.exp;
+        return normalize();
+    }
+
+    /**
+     * this = this * (re + img i), for plain double operands
+     * */
+    @NotNull
+    public FloatExpComplex multiply(double re, double img) {
+        final double r = this.re * re - this.img * img;
+        this.img = this.re * img + this.img * re;
+        this.re = r;
+        return normalize();
+    }
+
+    /**
+     * @return the real part as a double, 0 if it underflows
+     * */
+    public double reDouble() {
+        return exp < Double.MIN_EXPONENT - 60? 0: Math.scalb(re, exp);
+    }
+
+    /**
+     * @return the imaginary part as a double, 0 if it underflows
+     * */
+    public double imgDouble() {
+        return exp < Double.MIN_EXPONENT - 60? 0: Math.scalb(img, exp);
+    }
+
+    /**
+     * @return |this|^2 as a double, 0 if it underflows
+     * */
+    public double normSqDouble() {
+        final double re = reDouble(), img = imgDouble();
+        return re * re + img * img;
+    }
+
+    @Override
+    public String toString() {
+        return "(" + re + " " + (img < 0? "-": "+") + " " + Math.abs(img) + "i) * 2^" + exp;
+    }
+}
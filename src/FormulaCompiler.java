@@ -0,0 +1,666 @@
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Compiles an iteration formula Z -> f(Z, C) to a {@link FractalKernel}, as a hidden class generated at runtime.
+ * <p>
+ * The formula becomes straight-line bytecode inside the escape-time loop, with complex values split into pairs of
+ * double locals, so there is no expression tree to walk per iteration and the JIT compiles it like a hand-written
+ * kernel. Pixels are mapped to C, and the seed is Z0 (parameter plane, like the Mandelbrot Set). The divergence test
+ * is the same as {@link Main#iterateMandelbrot(Complex, Complex, int, double)}: |Z - Z0| >= divergence distance.
+ * <p>
+ * Syntax: complex expressions over {@code z}, {@code c}, {@code i} and real numbers, with {@code + - * /},
+ * {@code ^n} for integer powers (0 to {@link #MAX_POWER}), parentheses and the functions
+ * <ul>
+ *     <li>{@code conj(w)}: complex conjugate</li>
+ *     <li>{@code fold(w)}: |Re w| + i |Im w| (Burning Ship)</li>
+ *     <li>{@code absre(w)}: |Re w| + i Im w, {@code absim(w)}: Re w + i |Im w|</li>
+ *     <li>{@code re(w)}, {@code im(w)}, {@code abs(w)}: real part, imaginary part and modulus, as real numbers</li>
+ *     <li>{@code sqr(w)}: w^2</li>
+ * </ul>
+ * Examples: {@code fold(z)^2 + c} (Burning Ship), {@code z^3 - 0.5*z + c}, {@code conj(z)^2 + c} (Tricorn)
+ * */
+public final class FormulaCompiler {
+
+    public static final int MAX_POWER = 64;
+
+    /**
+     * Longest formula accepted, in characters. Bounds the depth of the recursive parser and code generator
+     * */
+    public static final int MAX_LENGTH = 1024;
+
+    private static final String KERNEL = "FractalKernel";
+    private static final String FRAME = "FractalKernel$Frame";
+    private static final String RUN_DESCRIPTOR = "(DDDDID)I";
+
+    /* Locals of the generated escape-time loop */
+    private static final int Z0_RE = 0, Z0_IMG = 2, C_RE = 4, C_IMG = 6, MAX = 8, DSQ = 9, ITR = 11, Z_RE = 12, Z_IMG = 14, FIRST_TEMP = 16;
+
+    private FormulaCompiler() {
+    }
+
+    /**
+     * @return a kernel iterating the given formula
+     * @throws IllegalArgumentException if the formula is malformed, or too large for a single method
+     * @throws IllegalStateException if the generated kernel fails to load
+     * */
+    @NotNull
+    public static FractalKernel compile(@NotNull String formula) throws IllegalArgumentException, IllegalStateException {
+        if (formula.length() > MAX_LENGTH)
+            throw new IllegalArgumentException("Formula too long: " + formula.length() + " characters, max " + MAX_LENGTH);
+
+        final Node node = new Parser(formula).parse();
+        final byte[] bytes = generate(node);
+
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+            return (FractalKernel) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+        } catch (Throwable exc) {
+            throw new IllegalStateException("Failed to load the kernel of formula <" + formula + ">", exc);
+        }
+    }
+
+
+    /* ...........................................  Syntax tree  ........................................... */
+
+    private sealed interface Node permits Constant, Variable, Negate, Binary, Power, Function {
+    }
+
+    private record Constant(double re, double im) implements Node {
+    }
+
+    private record Variable(int reSlot, int imSlot) implements Node {
+    }
+
+    private record Negate(Node operand) implements Node {
+    }
+
+    private record Binary(char op, Node left, Node right) implements Node {
+    }
+
+    private record Power(Node base, int exponent) implements Node {
+    }
+
+    private record Function(String name, Node argument) implements Node {
+    }
+
+    private static final class Parser {
+
+        private final String src;
+        private int pos;
+
+        private Parser(@NotNull String src) {
+            this.src = src;
+        }
+
+        @NotNull
+        Node parse() {
+            final Node node = expression();
+            skipSpaces();
+            if (pos < src.length())
+                throw error("Unexpected <" + src.charAt(pos) + ">");
+            return node;
+        }
+
+        private IllegalArgumentException error(@NotNull String message) {
+            return new IllegalArgumentException(message + " at position " + (pos + 1) + " of <" + src + ">");
+        }
+
+        private void skipSpaces() {
+            while (pos < src.length() && Character.isWhitespace(src.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private boolean accept(char ch) {
+            skipSpaces();
+            if (pos < src.length() && src.charAt(pos) == ch) {
+                pos++;
+                return true;
+            }
+
+            return false;
+        }
+
+        private void expect(char ch) {
+            if (!accept(ch))
+                throw error("Expected <" + ch + ">");
+        }
+
+        private Node expression() {
+            Node node = term();
+            while (true) {
+                if (accept('+')) {
+                    node = new Binary('+', node, term());
+                } else if (accept('-')) {
+                    node = new Binary('-', node, term());
+                } else {
+                    return node;
+                }
+            }
+        }
+
+        private Node term() {
+            Node node = unary();
+            while (true) {
+                if (accept('*')) {
+                    node = new Binary('*', node, unary());
+                } else if (accept('/')) {
+                    node = new Binary('/', node, unary());
+                } else {
+                    return node;
+                }
+            }
+        }
+
+        private Node unary() {
+            if (accept('-'))
+                return new Negate(unary());
+            if (accept('+'))
+                return unary();
+
+            final Node base = primary();
+            if (!accept('^'))
+                return base;
+
+            skipSpaces();
+            final int start = pos;
+            while (pos < src.length() && Character.isDigit(src.charAt(pos))) {
+                pos++;
+            }
+
+            if (start == pos)
+                throw error("Expected an integer exponent");
+
+            final int exponent;
+            try {
+                exponent = Integer.parseInt(src.substring(start, pos));
+            } catch (NumberFormatException exc) {
+                throw error("Exponent too large");
+            }
+
+            if (exponent > MAX_POWER)
+                throw error("Exponent larger than " + MAX_POWER);
+            return new Power(base, exponent);
+        }
+
+        private Node primary() {
+            skipSpaces();
+            if (pos >= src.length())
+                throw error("Unexpected end");
+
+            if (accept('('))  {
+                final Node node = expression();
+                expect(')');
+                return node;
+            }
+
+            if (accept('|')) {
+                final Node node = expression();
+                expect('|');
+                return new Function("abs", node);
+            }
+
+            final char ch = src.charAt(pos);
+            if (Character.isDigit(ch) || ch == '.') {
+                final int start = pos;
+                while (pos < src.length() && (Character.isDigit(src.charAt(pos)) || src.charAt(pos) == '.')) {
+                    pos++;
+                }
+
+                // Exponent part
+                if (pos < src.length() && (src.charAt(pos) == 'e' || src.charAt(pos) == 'E')) {
+                    int p = pos + 1;
+                    if (p < src.length() && (src.charAt(p) == '+' || src.charAt(p) == '-')) {
+                        p++;
+                    }
+
+                    if (p < src.length() && Character.isDigit(src.charAt(p))) {
+                        pos = p;
+                        while (pos < src.length() && Character.isDigit(src.charAt(pos))) {
+                            pos++;
+                        }
+                    }
+                }
+
+                final double value;
+                try {
+                    value = Double.parseDouble(src.substring(start, pos));
+                } catch (NumberFormatException exc) {
+                    throw error("Invalid number <" + src.substring(start, pos) + ">");
+                }
+
+                // Imaginary literal, like 0.5i
+                if (pos < src.length() && src.charAt(pos) == 'i' && (pos + 1 >= src.length() || !Character.isLetterOrDigit(src.charAt(pos + 1)))) {
+                    pos++;
+                    return new Constant(0, value);
+                }
+
+                return new Constant(value, 0);
+            }
+
+            if (Character.isLetter(ch)) {
+                final int start = pos;
+                while (pos < src.length() && Character.isLetterOrDigit(src.charAt(pos))) {
+                    pos++;
+                }
+
+                final String name = src.substring(start, pos).toLowerCase();
+                switch (name) {
+                    case "z": return new Variable(Z_RE, Z_IMG);
+                    case "c": return new Variable(C_RE, C_IMG);
+                    case "i": return new Constant(0, 1);
+                    case "conj", "fold", "absre", "absim", "re", "im", "abs", "sqr": {
+                        expect('(');
+                        final Node argument = expression();
+                        expect(')');
+                        return new Function(name, argument);
+                    }
+                    default: {
+                        pos = start;
+                        throw error("Unknown name <" + name + ">");
+                    }
+                }
+            }
+
+            throw error("Unexpected <" + ch + ">");
+        }
+    }
+
+
+    /* ...........................................  Code generation  ........................................... */
+
+    /**
+     * Component of a complex value: a double local, or a constant
+     * */
+    private record Part(int slot, double constant) {
+
+        static Part local(int slot) {
+            return new Part(slot, 0);
+        }
+
+        static Part of(double constant) {
+            return new Part(-1, constant);
+        }
+
+        boolean isConstant() {
+            return slot < 0;
+        }
+
+        boolean isZero() {
+            return slot < 0 && Double.doubleToRawLongBits(constant) == 0;
+        }
+    }
+
+    private record Value(Part re, Part im) {
+    }
+
+    /**
+     * Emits the body of the escape-time loop
+     * */
+    private static final class Emitter {
+
+        private final ClassFileWriter.Code code;
+        private final ClassFileWriter writer;
+        private int nextLocal = FIRST_TEMP;
+
+        private Emitter(@NotNull ClassFileWriter writer, @NotNull ClassFileWriter.Code code) {
+            this.writer = writer;
+            this.code = code;
+        }
+
+        int maxLocals() {
+            return nextLocal;
+        }
+
+        void load(@NotNull Part part) {
+            if (part.isConstant()) {
+                code.ldc(part.constant);
+            } else {
+                code.local(ClassFileWriter.DLOAD, part.slot);
+            }
+        }
+
+        /**
+         * Stores the double on top of the stack to a new local
+         * */
+        @NotNull
+        Part store() {
+            final int slot = nextLocal;
+            nextLocal += 2;
+            code.local(ClassFileWriter.DSTORE, slot);
+            return Part.local(slot);
+        }
+
+        /**
+         * @return a * b, or one of them when the other is the constant 1
+         * */
+        @NotNull
+        Part mul(@NotNull Part a, @NotNull Part b) {
+            if (a.isConstant() && b.isConstant())
+                return Part.of(a.constant * b.constant);
+            if (a.isConstant() && a.constant == 1)
+                return b;
+            if (b.isConstant() && b.constant == 1)
+                return a;
+
+            load(a);
+            load(b);
+            code.op(ClassFileWriter.DMUL);
+            return store();
+        }
+
+        /**
+         * @return a + b (or a - b), skipping a zero right operand
+         * */
+        @NotNull
+        Part add(@NotNull Part a, @NotNull Part b, boolean subtract) {
+            if (a.isConstant() && b.isConstant())
+                return Part.of(subtract? a.constant - b.constant: a.constant + b.constant);
+            if (b.isZero())
+                return a;
+            if (a.isZero() && !subtract)
+                return b;
+
+            load(a);
+            load(b);
+            code.op(subtract? ClassFileWriter.DSUB: ClassFileWriter.DADD);
+            return store();
+        }
+
+        @NotNull
+        Part negate(@NotNull Part a) {
+            if (a.isConstant())
+                return Part.of(-a.constant);
+
+            load(a);
+            code.op(ClassFileWriter.DNEG);
+            return store();
+        }
+
+        @NotNull
+        Part math(@NotNull String name, @NotNull Part a) {
+            if (a.isConstant())
+                return Part.of(name.equals("abs")? Math.abs(a.constant): Math.sqrt(a.constant));
+
+            load(a);
+            code.ref(ClassFileWriter.INVOKESTATIC, writer.methodRef("java/lang/Math", name, "(D)D"));
+            return store();
+        }
+
+        /**
+         * (a.re a.re - a.im a.im) + i (2 a.re a.im), same operation order as the hand-written kernels
+         * */
+        @NotNull
+        Value square(@NotNull Value a) {
+            if (a.im.isZero())
+                return new Value(mul(a.re, a.re), Part.of(0));
+
+            final Part re;
+            if (a.re.isConstant() || a.im.isConstant()) {
+                re = add(mul(a.re, a.re), mul(a.im, a.im), true);
+            } else {
+                load(a.re);
+                load(a.re);
+                code.op(ClassFileWriter.DMUL);
+                load(a.im);
+                load(a.im);
+                code.op(ClassFileWriter.DMUL);
+                code.op(ClassFileWriter.DSUB);
+                re = store();
+            }
+
+            return new Value(re, mul(mul(Part.of(2), a.re), a.im));
+        }
+
+        @NotNull
+        Value multiply(@NotNull Value a, @NotNull Value b) {
+            if (b.im.isZero())
+                return new Value(mul(a.re, b.re), mul(a.im, b.re));
+            if (a.im.isZero())
+                return new Value(mul(a.re, b.re), mul(a.re, b.im));
+
+            return new Value(
+                    add(mul(a.re, b.re), mul(a.im, b.im), true),
+                    add(mul(a.re, b.im), mul(a.im, b.re), false)
+            );
+        }
+
+        @NotNull
+        Value divide(@NotNull Value a, @NotNull Value b) {
+            if (b.im.isZero()) {
+                final Part inv = b.re.isConstant()? Part.of(1 / b.re.constant): null;
+                if (inv != null)
+                    return new Value(mul(a.re, inv), mul(a.im, inv));
+
+                return new Value(div(a.re, b.re), div(a.im, b.re));
+            }
+
+            final Part den = add(mul(b.re, b.re), mul(b.im, b.im), false);
+            return new Value(
+                    div(add(mul(a.re, b.re), mul(a.im, b.im), false), den),
+                    div(add(mul(a.im, b.re), mul(a.re, b.im), true), den)
+            );
+        }
+
+        @NotNull
+        private Part div(@NotNull Part a, @NotNull Part b) {
+            if (a.isConstant() && b.isConstant())
+                return Part.of(a.constant / b.constant);
+
+            load(a);
+            load(b);
+            code.op(ClassFileWriter.DDIV);
+            return store();
+        }
+
+        @NotNull
+        Value power(@NotNull Value base, int exponent) {
+            if (exponent == 0)
+                return new Value(Part.of(1), Part.of(0));
+
+            // Binary exponentiation, unrolled
+            Value result = null;
+            Value square = base;
+            for (int e = exponent; ; ) {
+                if ((e & 1) != 0) {
+                    result = result == null? square: multiply(result, square);
+                }
+
+                e >>>= 1;
+                if (e == 0)
+                    return result;
+
+                square = square(square);
+            }
+        }
+
+        @NotNull
+        Value emit(@NotNull Node node) {
+            if (node instanceof Constant k)
+                return new Value(Part.of(k.re()), Part.of(k.im()));
+
+            if (node instanceof Variable v)
+                return new Value(Part.local(v.reSlot()), Part.local(v.imSlot()));
+
+            if (node instanceof Negate n) {
+                final Value a = emit(n.operand());
+                return new Value(negate(a.re), negate(a.im));
+            }
+
+            if (node instanceof Binary b) {
+                final Value l = emit(b.left());
+                final Value r = emit(b.right());
+                return switch (b.op()) {
+                    case '+' -> new Value(add(l.re, r.re, false), add(l.im, r.im, false));
+                    case '-' -> new Value(add(l.re, r.re, true), add(l.im, r.im, true));
+                    case '*' -> multiply(l, r);
+                    default -> divide(l, r);
+                };
+            }
+
+            if (node instanceof Power p)
+                return power(emit(p.base()), p.exponent());
+
+            final Function f = (Function) node;
+            final Value a = emit(f.argument());
+            return switch (f.name()) {
+                case "conj" -> new Value(a.re, negate(a.im));
+                case "fold" -> new Value(math("abs", a.re), math("abs", a.im));
+                case "absre" -> new Value(math("abs", a.re), a.im);
+                case "absim" -> new Value(a.re, math("abs", a.im));
+                case "re" -> new Value(a.re, Part.of(0));
+                case "im" -> new Value(a.im, Part.of(0));
+                case "sqr" -> square(a);
+                default -> new Value(math("sqrt", add(mul(a.re, a.re), mul(a.im, a.im), false)), Part.of(0));       // abs
+            };
+        }
+
+        /**
+         * @return the part in a local that the loop does not overwrite before reading it
+         * */
+        @NotNull
+        Part detach(@NotNull Part part) {
+            if (part.slot == Z_RE || part.slot == Z_IMG) {
+                load(part);
+                return store();
+            }
+
+            return part;
+        }
+    }
+
+    @NotNull
+    private static byte[] generate(@NotNull Node formula) {
+        final ClassFileWriter w = new ClassFileWriter("CompiledFormula", "java/lang/Object", KERNEL);
+        final String name = "CompiledFormula";
+        final int run = w.methodRef(name, "run", RUN_DESCRIPTOR);
+
+        // Constructor
+        ClassFileWriter.Code code = w.method(ClassFileWriter.ACC_PUBLIC, "<init>", "()V");
+        code.local(ClassFileWriter.ALOAD, 0);
+        code.ref(ClassFileWriter.INVOKESPECIAL, w.methodRef("java/lang/Object", "<init>", "()V"));
+        code.op(ClassFileWriter.RETURN);
+        code.end(1, 1);
+
+        // static int run(double z0re, double z0img, double cre, double cimg, int maxIterations, double dsq)
+        code = w.method(ClassFileWriter.ACC_PUBLIC | ClassFileWriter.ACC_STATIC, "run", RUN_DESCRIPTOR);
+        code.local(ClassFileWriter.DLOAD, Z0_RE);
+        code.local(ClassFileWriter.DSTORE, Z_RE);
+        code.local(ClassFileWriter.DLOAD, Z0_IMG);
+        code.local(ClassFileWriter.DSTORE, Z_IMG);
+        code.op(ClassFileWriter.ICONST_0);
+        code.local(ClassFileWriter.ISTORE, ITR);
+
+        final ClassFileWriter.Label loop = new ClassFileWriter.Label(), end = new ClassFileWriter.Label();
+        code.place(loop);
+        code.local(ClassFileWriter.ILOAD, ITR);
+        code.local(ClassFileWriter.ILOAD, MAX);
+        code.jump(ClassFileWriter.IF_ICMPGE, end);
+
+        final Emitter emitter = new Emitter(w, code);
+        final Value next = emitter.emit(formula);
+        final Part nre = emitter.detach(next.re), nim = emitter.detach(next.im);
+
+        // If distance of new point from the seed is greater than divergenceDistance, break
+        emitter.load(nre);
+        code.local(ClassFileWriter.DLOAD, Z0_RE);
+        code.op(ClassFileWriter.DSUB);
+        code.op(ClassFileWriter.DUP2);
+        code.op(ClassFileWriter.DMUL);
+        emitter.load(nim);
+        code.local(ClassFileWriter.DLOAD, Z0_IMG);
+        code.op(ClassFileWriter.DSUB);
+        code.op(ClassFileWriter.DUP2);
+        code.op(ClassFileWriter.DMUL);
+        code.op(ClassFileWriter.DADD);
+        code.local(ClassFileWriter.DLOAD, DSQ);
+        code.op(ClassFileWriter.DCMPL);
+        code.jump(ClassFileWriter.IFGE, end);
+
+        emitter.load(nre);
+        code.local(ClassFileWriter.DSTORE, Z_RE);
+        emitter.load(nim);
+        code.local(ClassFileWriter.DSTORE, Z_IMG);
+        code.iinc(ITR, 1);
+        code.jump(ClassFileWriter.GOTO, loop);
+
+        code.place(end);
+        code.local(ClassFileWriter.ILOAD, ITR);
+        code.op(ClassFileWriter.IRETURN);
+        code.end(12, emitter.maxLocals());
+
+        // int iterate(Frame frame, double re, double img): pixel is C, seed is Z0
+        code = w.method(ClassFileWriter.ACC_PUBLIC, "iterate", "(L" + FRAME + ";DD)I");
+        pushSeed(w, code, 1);
+        code.local(ClassFileWriter.DLOAD, 2);
+        code.local(ClassFileWriter.DLOAD, 4);
+        pushLimits(w, code, 1);
+        code.ref(ClassFileWriter.INVOKESTATIC, run);
+        code.op(ClassFileWriter.IRETURN);
+        code.end(16, 6);
+
+        // void iterateRow(Frame frame, double[] re, double img, int[] out)
+        code = w.method(ClassFileWriter.ACC_PUBLIC, "iterateRow", "(L" + FRAME + ";[DD[I)V");
+        final ClassFileWriter.Label rowLoop = new ClassFileWriter.Label(), rowEnd = new ClassFileWriter.Label();
+        code.op(ClassFileWriter.ICONST_0);
+        code.local(ClassFileWriter.ISTORE, 6);
+        code.place(rowLoop);
+        code.local(ClassFileWriter.ILOAD, 6);
+        code.local(ClassFileWriter.ALOAD, 2);
+        code.op(ClassFileWriter.ARRAYLENGTH);
+        code.jump(ClassFileWriter.IF_ICMPGE, rowEnd);
+        code.local(ClassFileWriter.ALOAD, 5);
+        code.local(ClassFileWriter.ILOAD, 6);
+        pushSeed(w, code, 1);
+        code.local(ClassFileWriter.ALOAD, 2);
+        code.local(ClassFileWriter.ILOAD, 6);
+        code.op(ClassFileWriter.DALOAD);
+        code.local(ClassFileWriter.DLOAD, 3);
+        pushLimits(w, code, 1);
+        code.ref(ClassFileWriter.INVOKESTATIC, run);
+        code.op(ClassFileWriter.IASTORE);
+        code.iinc(6, 1);
+        code.jump(ClassFileWriter.GOTO, rowLoop);
+        code.place(rowEnd);
+        code.op(ClassFileWriter.RETURN);
+        code.end(20, 7);
+
+        // int iterateDoubleDouble(Frame frame, double reHi, double reLo, double imgHi, double imgLo): rounded to double
+        code = w.method(ClassFileWriter.ACC_PUBLIC, "iterateDoubleDouble", "(L" + FRAME + ";DDDD)I");
+        pushSeed(w, code, 1);
+        code.local(ClassFileWriter.DLOAD, 2);
+        code.local(ClassFileWriter.DLOAD, 4);
+        code.op(ClassFileWriter.DADD);
+        code.local(ClassFileWriter.DLOAD, 6);
+        code.local(ClassFileWriter.DLOAD, 8);
+        code.op(ClassFileWriter.DADD);
+        pushLimits(w, code, 1);
+        code.ref(ClassFileWriter.INVOKESTATIC, run);
+        code.op(ClassFileWriter.IRETURN);
+        code.end(16, 10);
+
+        return w.toByteArray();
+    }
+
+    private static void pushSeed(@NotNull ClassFileWriter w, @NotNull ClassFileWriter.Code code, int frameLocal) {
+        code.local(ClassFileWriter.ALOAD, frameLocal);
+        code.ref(ClassFileWriter.GETFIELD, w.fieldRef(FRAME, "seedRe", "D"));
+        code.local(ClassFileWriter.ALOAD, frameLocal);
+        code.ref(ClassFileWriter.GETFIELD, w.fieldRef(FRAME, "seedImg", "D"));
+    }
+
+    /**
+     * Pushes max iterations and the squared divergence distance
+     * */
+    private static void pushLimits(@NotNull ClassFileWriter w, @NotNull ClassFileWriter.Code code, int frameLocal) {
+        code.local(ClassFileWriter.ALOAD, frameLocal);
+        code.ref(ClassFileWriter.GETFIELD, w.fieldRef(FRAME, "maxIterations", "I"));
+        code.local(ClassFileWriter.ALOAD, frameLocal);
+        code.ref(ClassFileWriter.GETFIELD, w.fieldRef(FRAME, "divergeDistance", "D"));
+        code.op(ClassFileWriter.DUP2);
+        code.op(ClassFileWriter.DMUL);
+    }
+}
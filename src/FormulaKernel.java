@@ -0,0 +1,58 @@
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Kernel of {@link Main.Fractal#FORMULA}: delegates to the kernel compiled from the current formula, see {@link FormulaCompiler}.
+ * <p>
+ * Rows are handed over whole, so the delegation costs one call per row, and the loop over pixels runs inside the
+ * compiled kernel.
+ * */
+public final class FormulaKernel implements FractalKernel {
+
+    public static final String DEFAULT_FORMULA = "fold(z)^2 + c";      // Burning Ship
+
+    /**
+     * Kernel of the Custom Formula fractal
+     * */
+    public static final FormulaKernel CUSTOM = new FormulaKernel(DEFAULT_FORMULA);
+
+    @NotNull
+    private volatile String mFormula;
+    @NotNull
+    private volatile FractalKernel mKernel;
+
+    private FormulaKernel(@NotNull String formula) {
+        mFormula = formula;
+        mKernel = FormulaCompiler.compile(formula);
+    }
+
+    @NotNull
+    public String getFormula() {
+        return mFormula;
+    }
+
+    /**
+     * Compiles and switches to the given formula
+     *
+     * @throws IllegalArgumentException if the formula is malformed or too large, the current one is kept then
+     * @throws IllegalStateException if the compiled formula fails to load, the current one is kept then
+     * */
+    public void setFormula(@NotNull String formula) throws IllegalArgumentException, IllegalStateException {
+        mKernel = FormulaCompiler.compile(formula);
+        mFormula = formula;
+    }
+
+    @Override
+    public int iterate(@NotNull Frame frame, double re, double img) {
+        return mKernel.iterate(frame, re, img);
+    }
+
+    @Override
+    public void iterateRow(@NotNull Frame frame, double @NotNull [] re, double img, int @NotNull [] out) {
+        mKernel.iterateRow(frame, re, img, out);
+    }
+
+    @Override
+    public int iterateDoubleDouble(@NotNull Frame frame, double reHi, double reLo, double imgHi, double imgLo) {
+        return mKernel.iterateDoubleDouble(frame, reHi, reLo, imgHi, imgLo);
+    }
+}
@@ -0,0 +1,111 @@
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Escape-time kernel of a {@link Main.Fractal}, for the float, double and double-double precision tiers.
+ * <p>
+ * Pixels are mapped to the complex plane by the caller, the kernel decides what a pixel stands for (Z0 or C) and which
+ * iteration routine to run, once per frame given its {@link Frame} parameters.
+ * <p>
+ * Dispatch happens once per row (or once per frame in the subdivision render mode): every implementation runs the
+ * per-pixel loop of {@link #iterateRow} itself, so that the calls inside it are monomorphic and get inlined, however
+ * many kernels there are. Implementations should be final classes, and should not share that loop through a default
+ * method or a base class.
+ * */
+public interface FractalKernel {
+
+    /**
+     * @return iteration count of a single pixel at (re, img), in float or double precision (see {@link Frame#floats})
+     * */
+    int iterate(@NotNull Frame frame, double re, double img);
+
+    /**
+     * Iteration counts of a run of pixels sharing a row, same as {@link #iterate} on each of them
+     *
+     * @param re real coordinate of every pixel of the row
+     * @param img imaginary coordinate of the row
+     * @param out receives the iteration count of pixel i at index i
+     * */
+    void iterateRow(@NotNull Frame frame, double @NotNull [] re, double img, int @NotNull [] out);
+
+    /**
+     * @return iteration count of a single pixel at (reHi + reLo, imgHi + imgLo), in double-double precision
+     * */
+    int iterateDoubleDouble(@NotNull Frame frame, double reHi, double reLo, double imgHi, double imgLo);
+
+    /**
+     * @return whether this kernel iterates Z^2 + C. The float, double-double and perturbation tiers, the
+     * SIMD kernel and row mirroring are only available to such kernels
+     * */
+    default boolean isQuadratic() {
+        return false;
+    }
+
+
+    /**
+     * Kernel parameters of a frame. Immutable, built once per frame
+     * */
+    final class Frame {
+
+        public final double seedRe, seedImg;
+        public final int maxIterations;
+        public final double divergeDistance;
+
+        /**
+         * Exponent d of the Z^d + C kernels, see {@link MultibrotKernel}
+         * */
+        public final int exponent;
+
+        /**
+         * Whether pixels are iterated in single precision
+         * */
+        public final boolean floats;
+
+        /**
+         * Periodicity checking tolerance, -ve if disabled
+         * */
+        public final double periodTolerance;
+        @Nullable
+        public final LongAdder itrSaved;
+
+        /**
+         * Whether pixels are proved interior early: through the attracting cycle of their own C (double precision only),
+         * or through {@link #cycle} when shared by every pixel
+         * */
+        public final boolean interiorDetection;
+
+        /**
+         * Attracting cycle shared by every pixel (the seed of Julia Sets), null if none or without interior detection
+         * */
+        @Nullable
+        public final AttractingCycle cycle;
+
+        /**
+         * Counts the pixels proved interior early
+         * */
+        @Nullable
+        public final LongAdder interiorResolved;
+
+        public Frame(double seedRe, double seedImg, int maxIterations, double divergeDistance, int exponent, boolean floats,
+                     double periodTolerance, @Nullable LongAdder itrSaved,
+                     boolean interiorDetection, @Nullable AttractingCycle cycle, @Nullable LongAdder interiorResolved) {
+            this.seedRe = seedRe;
+            this.seedImg = seedImg;
+            this.maxIterations = maxIterations;
+            this.divergeDistance = divergeDistance;
+            this.exponent = exponent;
+            this.floats = floats;
+            this.periodTolerance = periodTolerance;
+            this.itrSaved = itrSaved;
+            this.interiorDetection = interiorDetection;
+            this.cycle = cycle;
+            this.interiorResolved = interiorResolved;
+        }
+
+        public boolean isSeedZero() {
+            return seedRe == 0 && seedImg == 0;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Kernel of the Julia Set. Input space: each pixel is mapped to Z0, C = seed
+ * */
+public final class JuliaKernel implements FractalKernel {
+
+    @Override
+    public int iterate(@NotNull Frame frame, double re, double img) {
+        if (frame.floats)
+            return Main.iterateMandelbrotFloat((float) re, (float) img, (float) frame.seedRe, (float) frame.seedImg, frame.maxIterations, (float) frame.divergeDistance);
+
+        final AttractingCycle cycle = frame.cycle;
+        if (frame.interiorDetection && cycle != null)
+            return Main.iterateMandelbrot(re, img, frame.seedRe, frame.seedImg, cycle, frame.maxIterations, frame.divergeDistance, frame.interiorResolved);
+
+        return frame.periodTolerance > 0 ?
+                Main.iterateMandelbrot(new Complex(re, img), new Complex(frame.seedRe, frame.seedImg), frame.maxIterations, frame.divergeDistance, frame.periodTolerance, frame.itrSaved) :
+                Main.iterateMandelbrotDeferred(re, img, frame.seedRe, frame.seedImg, frame.maxIterations, frame.divergeDistance);
+    }
+
+    @Override
+    public void iterateRow(@NotNull Frame frame, double @NotNull [] re, double img, int @NotNull [] out) {
+        for (int i = 0; i < re.length; i++) {
+            out[i] = iterate(frame, re[i], img);
+        }
+    }
+
+    @Override
+    public int iterateDoubleDouble(@NotNull Frame frame, double reHi, double reLo, double imgHi, double imgLo) {
+        return DoubleDouble.iterateMandelbrot(reHi, reLo, imgHi, imgLo, frame.seedRe, 0, frame.seedImg, 0, frame.maxIterations, frame.divergeDistance);
+    }
+
+    @Override
+    public boolean isQuadratic() {
+        return true;
+    }
+}
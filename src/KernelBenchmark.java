@@ -0,0 +1,60 @@
+/**
+ * Compares the escape-time kernel with the deferred bailout variant at {@link Main#ITERATIONS_MAX}, and checks that both
+ * give the same iteration counts.
+ * <p>
+ * Usage: {@code KernelBenchmark [width height runs]}
+ * */
+public class KernelBenchmark {
+
+    // xMin, xMax, yMin, yMax
+    private static final double[][] VIEWS = {
+            {-2.5, 1, -1.2, 1.2},                       // whole set
+            {-0.7454, -0.7452, 0.1130, 0.1132},         // seahorse valley
+            {-1.8, -1.7, -0.05, 0.05},                  // real axis antenna
+    };
+
+    private static final double DIVERGENCE_DISTANCE = 4;
+
+    public static void main(String[] args) {
+        final int width = args.length > 0? Integer.parseInt(args[0]): 400;
+        final int height = args.length > 1? Integer.parseInt(args[1]): 300;
+        final int runs = args.length > 2? Integer.parseInt(args[2]): 5;
+        final int maxIterations = Main.ITERATIONS_MAX;
+
+        for (double[] view: VIEWS) {
+            final int[] expected = new int[width * height];
+            final int[] actual = new int[width * height];
+            long best = Long.MAX_VALUE, bestDeferred = Long.MAX_VALUE;
+
+            for (int run = 0; run < runs; run++) {
+                long start = System.nanoTime();
+                for (int y = 0; y < height; y++) {
+                    for (int x = 0; x < width; x++) {
+                        final Complex c = new Complex(view[0] + (view[1] - view[0]) * x / width, view[3] - (view[3] - view[2]) * y / height);
+                        expected[x + y * width] = Main.iterateMandelbrot(Complex.ZERO, c, maxIterations, DIVERGENCE_DISTANCE);
+                    }
+                }
+                best = Math.min(best, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                for (int y = 0; y < height; y++) {
+                    for (int x = 0; x < width; x++) {
+                        final double re = view[0] + (view[1] - view[0]) * x / width, img = view[3] - (view[3] - view[2]) * y / height;
+                        actual[x + y * width] = Main.iterateMandelbrotDeferred(0, 0, re, img, maxIterations, DIVERGENCE_DISTANCE);
+                    }
+                }
+                bestDeferred = Math.min(bestDeferred, System.nanoTime() - start);
+            }
+
+            int mismatches = 0;
+            for (int i = 0; i < expected.length; i++) {
+                if (expected[i] != actual[i]) {
+                    mismatches++;
+                }
+            }
+
+            System.out.printf("View [%s, %s] x [%s, %s]: per-iteration test %.1f ms, deferred %.1f ms (%.2fx), mismatches: %d%n",
+                    view[0], view[1], view[2], view[3], best / 1e6, bestDeferred / 1e6, (double) best / bestDeferred, mismatches);
+        }
+    }
+}
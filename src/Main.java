@@ -8,10 +8,15 @@ import processing.opengl.PJOGL;
 import util.async.Async;
 
 import java.awt.*;
-import java.util.LinkedList;
-import java.util.List;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Arrays;
 import java.util.Scanner;
-import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
 
 
 public class Main extends PApplet {
@@ -20,12 +25,32 @@ public class Main extends PApplet {
 
         MANDELBROT("Mandelbrot Set",
                 "Z",
-                new Complex(0, 0)
+                new Complex(0, 0),
+                new MandelbrotKernel()
         ),
 
         JULIA("Julia Set",
                 "C",
-                new Complex(0, 0)
+                new Complex(0, 0),
+                new JuliaKernel()
+        ),
+
+        MULTIBROT("Multibrot Set",
+                "Z",
+                new Complex(0, 0),
+                new MultibrotKernel(false)
+        ),
+
+        MULTIBROT_JULIA("Multibrot Julia Set",
+                "C",
+                new Complex(0, 0),
+                new MultibrotKernel(true)
+        ),
+
+        FORMULA("Custom Formula",
+                "Z",
+                new Complex(0, 0),
+                FormulaKernel.CUSTOM
         );
 
 
@@ -33,11 +58,14 @@ public class Main extends PApplet {
         public final String seedLabel;
         @NotNull
         public final Complex defaultSeed;
+        @NotNull
+        public final FractalKernel kernel;
 
-        Fractal(String displayName, String seedLabel, @NotNull Complex defaultSeed) {
+        Fractal(String displayName, String seedLabel, @NotNull Complex defaultSeed, @NotNull FractalKernel kernel) {
             this.displayName = displayName;
             this.seedLabel = seedLabel;
             this.defaultSeed = defaultSeed;
+            this.kernel = kernel;
         }
     }
 
@@ -69,9 +97,48 @@ public class Main extends PApplet {
     }
 
 
+    public enum RenderMode {
+        PER_PIXEL("Per Pixel"),
+        SUBDIVISION("Subdivision"),
+        ;
+
+        public final String displayName;
+
+        RenderMode(String displayName) {
+            this.displayName = displayName;
+        }
+    }
+
+
+    public enum PrecisionMode {
+        AUTO("Auto", Double.NaN),
+        FLOAT("Float", Math.ulp(1f)),
+        DOUBLE("Double", Math.ulp(1.0)),
+        DOUBLE_DOUBLE("Double-Double", 0x1p-104),
+        PERTURBATION("Perturbation", 0),
+        ;
+
+        public final String displayName;
+
+        /**
+         * Relative resolution of the coordinates, 0 if unlimited. Tiers are ordered from the cheapest
+         *
+         * @see PrecisionManager
+         * */
+        public final double resolution;
+
+        PrecisionMode(String displayName, double resolution) {
+            this.displayName = displayName;
+            this.resolution = resolution;
+        }
+    }
+
+
     private static final Fractal DEFAULT_FRACTAL = Fractal.JULIA;
     private static final SeedAnimationMode DEFAULT_ANIMATION_MODE = SeedAnimationMode.PERIODIC;
     private static final ColorScheme DEFAULT_COLOR_SCHEME = ColorScheme.HUE;
+    private static final RenderMode DEFAULT_RENDER_MODE = RenderMode.PER_PIXEL;
+    private static final PrecisionMode DEFAULT_PRECISION_MODE = PrecisionMode.AUTO;
 
     private static final double DEFAULT_X_MIN = -2;
     private static final double DEFAULT_X_MAX = 2;
@@ -90,18 +157,72 @@ public class Main extends PApplet {
     private static final int THREAD_COUNT_DEFAULT = Async.NO_CPU_CORES;
     private static final int THREAD_COUNT_STEP = 1;
 
+    // With the iteration map of the previous frame, tiles of the per-pixel render mode may hold up to this many times
+    // the rows of an evenly cut tile, so that cheap regions are merged into a few tiles
+    private static final int TILE_ROWS_MAX_FACTOR = 4;
+
     // Maximum number of iterations
     private static final int ITERATIONS_MIN = 10;
-    private static final int ITERATIONS_MAX = 10000;
+    public static final int ITERATIONS_MAX = 10000;
     private static final int ITERATIONS_DEFAULT = 100;
     private static final int ITERATIONS_STEP = 10;
 
+    // Exponent d of the Multibrot Sets Z^d + C
+    private static final int EXPONENT_MIN = 2;
+    private static final int EXPONENT_MAX = 64;
+    private static final int EXPONENT_DEFAULT = 3;
+
     // Minimum Distance after which the computation is flagged as diverging
     private static final double DIVERGENCE_DISTANCE_MIN = 2;
     private static final double DIVERGENCE_DISTANCE_MAX = 1000;
     private static final double DIVERGENCE_DISTANCE_DEFAULT = 4;
     private static final double DIVERGENCE_DISTANCE_STEP = 2;
 
+    // Periodicity checking: orbits returning within (pixel spacing * fraction) of a saved point are assumed periodic. A
+    // heuristic, escaping orbits that pass that close are counted as interior, so counts may differ near the boundary
+    public static final boolean DEFAULT_PERIODICITY_CHECKING = false;
+    private static final double PERIODICITY_TOLERANCE_PIXEL_FRACTION = 1e-3;
+    private static final int PERIODICITY_CHECK_WINDOW_INITIAL = 8;
+
+    // Deferred bailout: iterations run between divergence tests, where escapes are known to be permanent
+    public static final int DEFERRED_BAILOUT_BLOCK = 8;
+    private static final double DEFERRED_BAILOUT_MARGIN = 0x1p-20;        // relative slack for rounding errors
+
+    // Series approximation: skips the first iterations of every pixel in perturbation mode
+    public static final boolean DEFAULT_SERIES_APPROXIMATION = true;
+
+    // Bilinear approximation: jumps many iterations at once in perturbation mode, wherever the delta is small enough
+    public static final boolean DEFAULT_BLA = false;
+
+    // SIMD kernel: iterates a lane-width batch of pixels of a row together, on the Java Vector API (opt-in, needs --add-modules jdk.incubator.vector)
+    public static final boolean DEFAULT_SIMD = false;
+    public static final boolean VECTOR_API_AVAILABLE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    // Symmetry: with a real seed, rows mirrored across the real axis are copied instead of computed (per-pixel render mode)
+    public static final boolean DEFAULT_SYMMETRY = true;
+
+    // Distance estimation: a guard of the subdivision render mode, exterior rectangles are only filled when the estimate
+    // finds them free of the set (a heuristic, see SubdivisionRenderer). Off by default: it skips no work, and only
+    // refuses fills, for about one extra orbit per exterior fill
+    public static final boolean DEFAULT_DISTANCE_ESTIMATION = false;
+    private static final double DISTANCE_ESCAPE_RADIUS = 0x1p32;        // orbits are followed this far for the estimate
+    private static final int DISTANCE_EXTRA_ITERATIONS = 64;        // past max iterations, to reach the escape radius
+    private static final double DISTANCE_SAFETY = 0.5;
+
+    // Interior detection: pixels are proved interior early through an attracting cycle, that of their C for the
+    // Mandelbrot Set, that of the seed for Julia Sets. Off by default, as cycle searches cost more than they save on
+    // views with little interior
+    public static final boolean DEFAULT_INTERIOR_DETECTION = false;
+    public static final int INTERIOR_FIRST_CHECKPOINT = 32;        // iteration of the first cycle search, doubling from there
+    private static final int INTERIOR_NEWTON_STEPS = 8;
+    private static final double INTERIOR_PERIOD_TOLERANCE = 1e-3;      // closest return to a checkpoint, for its period to be tried
+
+    // While a new reference orbit is computed in the background, the previous one stands in if its reference point is within this many view spans
+    private static final double REFERENCE_STAND_IN_MAX_OFFSET_SPANS = 2;
+
+    // View bounds are rescaled by a power of two whenever their span leaves [2^-this, 2^this], so they never underflow
+    private static final int VIEW_SCALE_RENORMALIZE_BITS = 64;
+
     // Colors
     public static final Color COLOR_ACCENT = new Color(137, 207, 252, 255);
     public static final Color COLOR_ACCENT_HIGHLIGHT = new Color(255, 224, 99, 255);
@@ -169,10 +290,432 @@ public class Main extends PApplet {
         return itr;
     }
 
+    /**
+     * Same as {@link #iterateMandelbrot(Complex, Complex, int, double)}, with Brent-style periodicity checking.
+     * <p>
+     * The orbit is periodically saved at checkpoints whose spacing doubles every time. If the orbit ever returns
+     * within {@code periodTolerance} of the saved point, it is assumed to have settled into a cycle, and is flagged
+     * non-diverging (returns {@code maxIterations}) without burning the rest of the iteration budget.
+     * <p>
+     * This is a heuristic, not a proof: an orbit that still escapes, but passes within the tolerance of a saved point
+     * (slow orbits next to the boundary), gets {@code maxIterations} instead of its escape count. Counts are therefore
+     * not guaranteed identical to {@link #iterateMandelbrot(Complex, Complex, int, double)}, though a tolerance far
+     * below the pixel spacing keeps such pixels rare.
+     *
+     * @param periodTolerance maximum distance between the orbit and the saved point to be considered a cycle. Should be tied to the pixel size
+     * @param itrSaved accumulator for the number of iterations skipped due to cycle detection, may be null
+     * */
+    public static int iterateMandelbrot(@NotNull Complex z0, @NotNull Complex c, int maxIterations, double divergeDistance, double periodTolerance, @Nullable LongAdder itrSaved) {
+        final double dsq = divergeDistance * divergeDistance;
+        final double tsq = periodTolerance * periodTolerance;
+        int itr = 0;
+
+        double re = z0.re;
+        double img = z0.img;
+
+        // Saved orbit point and checkpoint window
+        double save_re = re;
+        double save_img = img;
+        int window = PERIODICITY_CHECK_WINDOW_INITIAL;
+        int window_itr = 0;
+
+        double nre;
+        double nimg;
+        while (itr < maxIterations) {
+            nre = (re * re - img * img) + c.re;
+            nimg = (2 * re * img) + c.img;
+
+            // If distance of new point from the seed is greater than divergenceDistance, break
+            double re_temp = nre - z0.re;
+            double img_temp = nimg - z0.img;
+            if ((re_temp * re_temp + img_temp * img_temp) >= dsq)
+                break;      // diverges
+
+            re = nre;
+            img = nimg;
+            itr++;
+
+            // Orbit came back to the saved point -> periodic, never diverges
+            re_temp = re - save_re;
+            img_temp = img - save_img;
+            if ((re_temp * re_temp + img_temp * img_temp) < tsq) {
+                if (itrSaved != null) {
+                    itrSaved.add(maxIterations - itr);
+                }
+
+                return maxIterations;
+            }
+
+            if (++window_itr == window) {
+                save_re = re;
+                save_img = img;
+                window_itr = 0;
+                window <<= 1;
+            }
+        }
+
+        return itr;
+    }
+
+    /**
+     * Single precision variant of {@link #iterateMandelbrot(Complex, Complex, int, double)}, on primitives only.
+     * Only accurate while the pixel spacing is far above float resolution, see {@link PrecisionManager}
+     * */
+    public static int iterateMandelbrotFloat(float z0re, float z0img, float cre, float cimg, int maxIterations, float divergeDistance) {
+        final float dsq = divergeDistance * divergeDistance;
+        int itr = 0;
+
+        float re = z0re;
+        float img = z0img;
+
+        float nre;
+        float nimg;
+        while (itr < maxIterations) {
+            nre = (re * re - img * img) + cre;
+            nimg = (2 * re * img) + cimg;
+
+            // If distance of new point from the seed is greater than divergenceDistance, break
+            float re_temp = nre - z0re;
+            float img_temp = nimg - z0img;
+            if ((re_temp * re_temp + img_temp * img_temp) >= dsq)
+                break;      // diverges
+
+            re = nre;
+            img = nimg;
+            itr++;
+        }
+
+        return itr;
+    }
+
+    /**
+     * Whether an orbit, once more than {@code divergeDistance} away from z0, stays so forever. With r = d - |z0|, that
+     * holds when r > 1, r^2 - |c| >= d + |z0| (the next point is beyond d + |z0|) and r (r - 1) >= |c| (the orbit keeps
+     * growing from there). Always the case for the Mandelbrot Set with z0 = 0 and d >= 2, for every c that does not
+     * escape right away.
+     * <p>
+     * The divergence test can then be deferred to the end of a block of iterations: an escape inside the block still
+     * shows at its end.
+     * */
+    public static boolean canDeferBailout(double z0re, double z0img, double cre, double cimg, double divergeDistance) {
+        final double z0 = Math.sqrt(z0re * z0re + z0img * z0img) * (1 + DEFERRED_BAILOUT_MARGIN);
+        final double c = Math.sqrt(cre * cre + cimg * cimg) * (1 + DEFERRED_BAILOUT_MARGIN);
+        final double r = (divergeDistance - z0) * (1 - DEFERRED_BAILOUT_MARGIN);
+
+        return r > 1 && r * r - c >= (divergeDistance + z0) * (1 + DEFERRED_BAILOUT_MARGIN) && r * (r - 1) >= c;
+    }
+
+    /**
+     * Same as {@link #iterateMandelbrot(Complex, Complex, int, double)}, on primitives, with the divergence test deferred
+     * to the end of every block of {@link #DEFERRED_BAILOUT_BLOCK} iterations.
+     * <p>
+     * The state is saved at the start of every block. When the test at the end of a block fails (or the orbit overflowed),
+     * the orbit rolls back to the saved state and the block is run again with a test on every iteration, so the
+     * iteration count is exact. Falls back to testing every iteration when {@link #canDeferBailout} does not hold.
+     * */
+    public static int iterateMandelbrotDeferred(double z0re, double z0img, double cre, double cimg, int maxIterations, double divergeDistance) {
+        if (!canDeferBailout(z0re, z0img, cre, cimg, divergeDistance))
+            return iterateMandelbrot(z0re, z0img, z0re, z0img, cre, cimg, 0, maxIterations, divergeDistance);
+
+        final double dsq = divergeDistance * divergeDistance;
+        int itr = 0;
+
+        double re = z0re;
+        double img = z0img;
+
+        while (maxIterations - itr >= DEFERRED_BAILOUT_BLOCK) {
+            final double save_re = re;
+            final double save_img = img;
+
+            for (int i = 0; i < DEFERRED_BAILOUT_BLOCK; i++) {
+                final double nre = (re * re - img * img) + cre;
+                img = (2 * re * img) + cimg;
+                re = nre;
+            }
+
+            // Escaped somewhere in the block (or overflowed to NaN): roll back and find exactly where
+            final double re_temp = re - z0re;
+            final double img_temp = img - z0img;
+            if (!((re_temp * re_temp + img_temp * img_temp) < dsq))
+                return iterateMandelbrot(save_re, save_img, z0re, z0img, cre, cimg, itr, maxIterations, divergeDistance);
+
+            itr += DEFERRED_BAILOUT_BLOCK;
+        }
+
+        return iterateMandelbrot(re, img, z0re, z0img, cre, cimg, itr, maxIterations, divergeDistance);
+    }
+
+    /**
+     * Same as {@link #iterateMandelbrot(Complex, Complex, int, double)}, on primitives, for a C with an attracting cycle.
+     * Once the orbit falls into the trap around the cycle, and the trap is within the divergence distance of Z0, the
+     * orbit never diverges: returns {@code maxIterations} right away. See {@link AttractingCycle}
+     *
+     * @param resolved if non-null, counts the pixels proved interior early
+     * */
+    public static int iterateMandelbrot(double z0re, double z0img, double cre, double cimg, @NotNull AttractingCycle cycle,
+                                        int maxIterations, double divergeDistance, @Nullable LongAdder resolved) {
+        return iterateMandelbrot(z0re, z0img, z0re, z0img, cre, cimg, cycle, 0, maxIterations, divergeDistance, resolved);
+    }
+
+    /**
+     * Continues an orbit from Z = (re, img) at iteration {@code itr}, with the trap around the attracting cycle of C
+     * */
+    private static int iterateMandelbrot(double re, double img, double z0re, double z0img, double cre, double cimg, @NotNull AttractingCycle cycle,
+                                         int itr, int maxIterations, double divergeDistance, @Nullable LongAdder resolved) {
+        final double dsq = divergeDistance * divergeDistance;
+        final double trapRe = cycle.re[0], trapImg = cycle.img[0];
+        final double trapSq = cycle.radius[0] * cycle.radius[0];
+
+        while (itr < maxIterations) {
+            final double nre = (re * re - img * img) + cre;
+            final double nimg = (2 * re * img) + cimg;
+
+            // If distance of new point from the seed is greater than divergenceDistance, break
+            final double re_temp = nre - z0re;
+            final double img_temp = nimg - z0img;
+            if ((re_temp * re_temp + img_temp * img_temp) >= dsq)
+                break;      // diverges
+
+            re = nre;
+            img = nimg;
+            itr++;
+
+            final double trap_re = re - trapRe;
+            final double trap_img = img - trapImg;
+            if ((trap_re * trap_re + trap_img * trap_img) < trapSq) {
+                if (cycle.isInterior(z0re, z0img, divergeDistance)) {
+                    if (resolved != null) {
+                        resolved.increment();
+                    }
+
+                    return maxIterations;
+                }
+
+                // Trapped, but the trap reaches past the divergence distance of Z0: carry on without the trap
+                return iterateMandelbrot(re, img, z0re, z0img, cre, cimg, itr, maxIterations, divergeDistance);
+            }
+        }
+
+        return itr;
+    }
+
+    /**
+     * Iterates the Mandelbrot Set with Z0 = 0 like {@link #iterateMandelbrot(Complex, Complex, int, double)}, on primitives,
+     * also tracking the derivative dZ/dC (Z' -> 2 Z Z' + 1) to estimate the distance from C to the set.
+     * <p>
+     * After the divergence test, the orbit is followed up to {@link #DISTANCE_ESCAPE_RADIUS}, where the Green's function
+     * G and its gradient are G = ln|Z| / 2^n and |G'| = |Z'| / (|Z| 2^n). The distance to the set is then at least
+     * sinh(G) / (2 e^G |G'|) = (1 - e^-2G) / (4 |G'|) (Koebe 1/4 theorem), scaled down by {@link #DISTANCE_SAFETY} for
+     * rounding errors. The factor is a margin, not a rigorous error bound, so the result is an estimate.
+     *
+     * @return estimated lower bound of the distance from C to the set, 0 if C did not escape within the max iterations
+     * */
+    public static double estimateMandelbrotDistance(double cre, double cimg, int maxIterations, double divergeDistance) {
+        final double dsq = divergeDistance * divergeDistance;
+        final double rsq = DISTANCE_ESCAPE_RADIUS * DISTANCE_ESCAPE_RADIUS;
+        final int limit = maxIterations + DISTANCE_EXTRA_ITERATIONS;
+        boolean escaped = false;
+
+        double re = 0, img = 0;
+        double dre = 0, dimg = 0;
+
+        for (int n = 0; n < limit; n++) {
+            final double ndre = 2 * (re * dre - img * dimg) + 1;
+            dimg = 2 * (re * dimg + img * dre);
+            dre = ndre;
+
+            final double nre = (re * re - img * img) + cre;
+            img = (2 * re * img) + cimg;
+            re = nre;
+
+            final double zsq = re * re + img * img;
+            if (!escaped) {
+                if (n == maxIterations)
+                    return 0;       // interior, as far as the plain kernel can tell
+
+                escaped = zsq >= dsq;
+            }
+
+            if (zsq >= rsq) {
+                final double z = Math.sqrt(zsq);
+                final double log = Math.log(z);
+                final double g = Math.scalb(log, -(n + 1));
+
+                // (1 - e^-2G) / (4 |G'|) = (1 - e^-2G) / 2G * |Z| ln|Z| / (2 |Z'|)
+                final double shrink = g < 0x1p-26? 1 - g: -Math.expm1(-2 * g) / (2 * g);
+                final double d = DISTANCE_SAFETY * shrink * z * log / (2 * Math.hypot(dre, dimg));
+                return d > 0 && d < Double.POSITIVE_INFINITY? d: 0;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Same as {@link #iterateMandelbrot(Complex, Complex, int, double)}, on primitives, proving pixels interior early for
+     * any C, using the derivative of its attracting cycle.
+     * <p>
+     * From checkpoints {@link #INTERIOR_FIRST_CHECKPOINT}, twice that, and so on, the next {@link AttractingCycle#MAX_PERIOD}
+     * iterations also track how close the orbit comes back to the checkpoint. If it comes back within
+     * {@link #INTERIOR_PERIOD_TOLERANCE}, Newton's method looks for an attracting cycle (multiplier |product of 2 Z(k)| < 1)
+     * of that period from there, see {@link AttractingCycle#near}. Once found, the orbit carries on with the trap around
+     * that cycle, and returns {@code maxIterations} as soon as it falls in, like Julia Sets do with the cycle of their seed.
+     * <p>
+     * Neighbouring pixels mostly share a hyperbolic component, so at the first checkpoint, Newton's method first starts
+     * from the cycle of the last pixel proved interior, which usually converges in a couple of steps. Searches that fail
+     * cost no extra iterations, and only a few Newton steps.
+     *
+     * @param hint cycle of the last pixel proved interior at index 0 (may be null), updated when this one is
+     * @param resolved if non-null, counts the pixels proved interior early
+     * */
+    public static int iterateMandelbrotInterior(double z0re, double z0img, double cre, double cimg, int maxIterations, double divergeDistance,
+                                                @Nullable AttractingCycle @NotNull [] hint, @Nullable LongAdder resolved) {
+        final double dsq = divergeDistance * divergeDistance;
+        final double tsq = INTERIOR_PERIOD_TOLERANCE * INTERIOR_PERIOD_TOLERANCE;
+        int itr = 0;
+
+        double re = z0re;
+        double img = z0img;
+
+        for (int checkpoint = INTERIOR_FIRST_CHECKPOINT; ; checkpoint *= 2) {
+            int end = Math.min(checkpoint, maxIterations);
+            while (itr < end) {
+                final double nre = (re * re - img * img) + cre;
+                final double nimg = (2 * re * img) + cimg;
+
+                // If distance of new point from the seed is greater than divergenceDistance, break
+                final double re_temp = nre - z0re;
+                final double img_temp = nimg - z0img;
+                if ((re_temp * re_temp + img_temp * img_temp) >= dsq)
+                    return itr;      // diverges
+
+                re = nre;
+                img = nimg;
+                itr++;
+            }
+
+            if (itr == maxIterations)
+                return itr;
+
+            // The cycle of the last interior pixel does not depend on this orbit: only tried once
+            AttractingCycle cycle = null;
+            final AttractingCycle last = checkpoint == INTERIOR_FIRST_CHECKPOINT? hint[0]: null;
+            if (last != null) {
+                cycle = AttractingCycle.near(last.re[0], last.img[0], cre, cimg, last.period, INTERIOR_NEWTON_STEPS);
+            }
+
+            if (cycle == null) {
+                // Closest return to the checkpoint within the next iterations
+                final double save_re = re, save_img = img;
+                double closest = tsq;
+                int period = 0;
+
+                end = Math.min(itr + AttractingCycle.MAX_PERIOD, maxIterations);
+                for (int p = 1; itr < end; p++) {
+                    final double nre = (re * re - img * img) + cre;
+                    final double nimg = (2 * re * img) + cimg;
+
+                    final double re_temp = nre - z0re;
+                    final double img_temp = nimg - z0img;
+                    if ((re_temp * re_temp + img_temp * img_temp) >= dsq)
+                        return itr;      // diverges
+
+                    re = nre;
+                    img = nimg;
+                    itr++;
+
+                    final double dr = re - save_re, di = img - save_img;
+                    final double d = dr * dr + di * di;
+                    if (d < closest) {
+                        closest = d;
+                        period = p;
+                    }
+                }
+
+                if (period > 0) {
+                    cycle = AttractingCycle.near(save_re, save_img, cre, cimg, period, INTERIOR_NEWTON_STEPS);
+                }
+            }
+
+            if (cycle != null) {
+                if (!cycle.isInterior(z0re, z0img, divergeDistance))
+                    return iterateMandelbrot(re, img, z0re, z0img, cre, cimg, itr, maxIterations, divergeDistance);
+
+                hint[0] = cycle;
+                return iterateMandelbrot(re, img, z0re, z0img, cre, cimg, cycle, itr, maxIterations, divergeDistance, resolved);
+            }
+        }
+    }
+
+    /**
+     * Continues an orbit from Z = (re, img) at iteration {@code itr}, testing for divergence on every iteration
+     * */
+    private static int iterateMandelbrot(double re, double img, double z0re, double z0img, double cre, double cimg,
+                                         int itr, int maxIterations, double divergeDistance) {
+        final double dsq = divergeDistance * divergeDistance;
+
+        while (itr < maxIterations) {
+            final double nre = (re * re - img * img) + cre;
+            final double nimg = (2 * re * img) + cimg;
+
+            // If distance of new point from the seed is greater than divergenceDistance, break
+            final double re_temp = nre - z0re;
+            final double img_temp = nimg - z0img;
+            if ((re_temp * re_temp + img_temp * img_temp) >= dsq)
+                break;      // diverges
+
+            re = nre;
+            img = nimg;
+            itr++;
+        }
+
+        return itr;
+    }
+
+    /**
+     * Analytic interior test for the Mandelbrot Set with z0 = 0.
+     * Checks whether the parameter c lies inside the main cardioid or the period-2 bulb,
+     * in which case the orbit never diverges and the full iteration can be skipped.
+     * */
+    public static boolean isInMainCardioidOrBulb(double cre, double cimg) {
+        final double cimg_sq = cimg * cimg;
+
+        // Period-2 bulb: circle of radius 1/4 centered at -1
+        final double bre = cre + 1;
+        if ((bre * bre + cimg_sq) <= 0.0625)
+            return true;
+
+        // Main cardioid: q(q + (x - 1/4)) <= y^2 / 4, where q = (x - 1/4)^2 + y^2
+        final double xq = cre - 0.25;
+        final double q = xq * xq + cimg_sq;
+        return q * (q + xq) <= 0.25 * cimg_sq;
+    }
+
+    @NotNull
+    public static String formatCount(long count) {
+        if (count >= 1_000_000_000L)
+            return String.format("%.2fG", count / 1e9);
+        if (count >= 1_000_000L)
+            return String.format("%.2fM", count / 1e6);
+        if (count >= 1_000L)
+            return String.format("%.2fK", count / 1e3);
+        return String.valueOf(count);
+    }
+
     public static double map(double value, double start1, double stop1, double start2, double stop2) {
         return start2 + (stop2 - start2) * ((value - start1) / (stop1 - start1));
     }
 
+    /**
+     * Maps a pixel coordinate in [0, size] of the frame to [start, stop], exact at both ends. For a range centered on zero
+     * (start = -stop), pixels at the same distance from both ends map to exact negations of each other, which keeps pixel
+     * rows mirrored across the real axis exactly aligned (see {@link #computeFrameSymmetry()}). Every render path maps
+     * frame pixels through this, so that they all iterate the same points
+     * */
+    private static double mapPixel(double pixel, double size, double start, double stop) {
+        return (start * (size - pixel) + stop * pixel) / size;
+    }
+
 
     @NotNull
     public static Dimension windowSize(int displayW, int displayH) {
@@ -194,7 +737,76 @@ public class Main extends PApplet {
     private Complex mSeed = fractal.defaultSeed;
     private int mMaxIterations = ITERATIONS_DEFAULT;
     private double mDivergenceDistance = DIVERGENCE_DISTANCE_DEFAULT;
+    private int mExponent = EXPONENT_DEFAULT;
     private int mThreadCount = THREAD_COUNT_DEFAULT;     // number of worker threads
+    private volatile boolean mPeriodicityChecking = DEFAULT_PERIODICITY_CHECKING;
+    @NotNull
+    private RenderMode mRenderMode = DEFAULT_RENDER_MODE;
+    @NotNull
+    private PrecisionMode mPrecisionMode = DEFAULT_PRECISION_MODE;
+    private volatile boolean mSeriesApproximation = DEFAULT_SERIES_APPROXIMATION;
+    private volatile boolean mBla = DEFAULT_BLA;
+    private volatile boolean mSimd = DEFAULT_SIMD;
+    private volatile boolean mSymmetry = DEFAULT_SYMMETRY;
+    private volatile boolean mDistanceEstimation = DEFAULT_DISTANCE_ESTIMATION;
+    private volatile boolean mInteriorDetection = DEFAULT_INTERIOR_DETECTION;
+
+    /* Per-frame render state */
+    private double mFramePeriodTolerance = -1;      // -ve if periodicity checking is disabled for the current frame
+    private final LongAdder mFrameItrSaved = new LongAdder();
+    private long mLastFrameItrSaved;
+    private final LongAdder mFrameInteriorResolved = new LongAdder();      // pixels proved interior early through an attracting cycle
+    private double mLastFrameInteriorFraction;
+    private double mFrameOriginRe, mFrameOriginImg;
+    private double mFrameOriginReLo, mFrameOriginImgLo;         // low parts of the double-double view origin
+    @NotNull
+    private PrecisionMode mFramePrecision = PrecisionMode.DOUBLE;        // precision tier of the current frame, never AUTO
+    private boolean mFramePrecisionInsufficient;        // whether the manually selected tier does not resolve the current frame
+    private boolean mFrameSimd;         // whether rows of the current frame go through the SIMD kernel
+    @Nullable
+    private int[] mFrameMirrorOf;       // row mirroring each row of the current frame across the real axis (-1 if none), null without symmetry
+    private int mFrameMirroredRows;
+    @NotNull
+    private FractalKernel.Frame mFrameKernelParams = new FractalKernel.Frame(0, 0, ITERATIONS_DEFAULT, DIVERGENCE_DISTANCE_DEFAULT, EXPONENT_DEFAULT, false, -1, null, false, null, null);
+    @Nullable
+    private double[] mFrameColumnRe;        // real coordinate of every column, in the float and double tiers (null otherwise)
+    private double mFramePixelsPerUnit;         // pixels per unit of C for distance estimates, 0 if the current frame has none
+    private long mLastFrameFillsRefused;        // uniform rectangles of the last subdivision frame that distance estimates refused to fill
+    @Nullable
+    private AttractingCycle mFrameCycle;        // attracting cycle of the Julia seed, null if none or not in Julia mode
+    @Nullable
+    private Complex mCycleSeed;         // seed mFrameCycle was searched for
+    @Nullable
+    private PerturbationEngine.Reference mFrameReference;       // non-null only in perturbation mode
+    private double mFrameRefOffsetRe, mFrameRefOffsetImg;       // offset of the view origin from the reference point of mFrameReference
+    private double mFrameViewScale = 1;         // 2^mViewScaleExp, only meaningful when the frame is not in extended range
+    private boolean mFrameExtendedRange;        // whether pixel deltas of the current frame need extended range (perturbation only)
+    @NotNull
+    private FloatExp mFrameRefOffsetExtRe = FloatExp.ZERO, mFrameRefOffsetExtImg = FloatExp.ZERO;      // extended range counterparts of mFrameRefOffsetRe/Img
+    @Nullable
+    private CompletableFuture<PerturbationEngine.Reference> mPendingReference;      // reference orbit being computed in the background
+    @Nullable
+    private PerturbationEngine.Key mPendingReferenceKey;
+    @Nullable
+    private SeriesApproximation mFrameSeries;        // non-null only in perturbation mode with series approximation
+    private int mLastFrameSeriesSkip;
+    @Nullable
+    private BlaTable mFrameBla;         // non-null only in perturbation mode with BLA
+    private final LongAdder mFrameBlaIterations = new LongAdder();
+    private final LongAdder mFrameBlaSteps = new LongAdder();
+    private double mLastFrameBlaSpeedup;
+    private int @Nullable [] mIterationBuffer;
+    @Nullable
+    private ForkJoinPool mRenderPool;
+    private final ThreadLocal<SimdRow> mWorkerSimdRow = new ThreadLocal<>();      // SIMD scratch of every render thread
+    private final ThreadLocal<int[]> mWorkerRowIterations = new ThreadLocal<>();  // kernel row scratch of every render thread
+    @Nullable
+    private TileScheduler.Stats mLastFrameWorkerStats;
+    private long @Nullable [] mFrameRowCost;            // render time (ns) of every row of the current frame
+    private long @Nullable [] mLastFrameRowCost;        // render time (ns) of every row of the last per-pixel frame, to predict tile costs
+    private boolean mFrameTilesPredicted;               // whether tiles of the current frame were sized and ordered by predicted cost
+    @NotNull
+    private final TileTuner mTileTuner = new TileTuner();
 
     @NotNull
     private Main.SeedAnimationMode animMode = DEFAULT_ANIMATION_MODE;
@@ -210,13 +822,22 @@ public class Main extends PApplet {
     private double yMin = DEFAULT_Y_MIN;
     private double yMax = DEFAULT_Y_MAX;
 
+    // High precision origin of the view. xMin, xMax, yMin and yMax are relative to this origin, which is kept at the view center
+    @NotNull
+    private BigDecimal mOriginRe = BigDecimal.ZERO;
+    @NotNull
+    private BigDecimal mOriginImg = BigDecimal.ZERO;
+
+    // View bounds are in units of 2^mViewScaleExp. Stays 0 until zooms far beyond the double precision limit
+    private int mViewScaleExp = 0;
+
     /* Ui */
     private int _w, _h;
     @Nullable
     private KeyEvent mKeyEvent;
     private PFont pdSans, pdSansMedium;
     private boolean drawHud = DEFAULT_DRAW_HUD;
-    private int mFrameInvalidated = 0;
+    private volatile int mFrameInvalidated = 0;
 
     /* Setup and Drawing */
 
@@ -260,6 +881,7 @@ public class Main extends PApplet {
         yMin -= y_delta;
         yMax += y_delta;
 
+        normalizeViewScale();
         invalidateFrame();
     }
 
@@ -274,6 +896,7 @@ public class Main extends PApplet {
         yMin += y_step;
         yMax += y_step;
 
+        rebaseViewOrigin();
         invalidateFrame();
     }
 
@@ -284,6 +907,63 @@ public class Main extends PApplet {
         translate(x_step, y_step);
     }
 
+    @NotNull
+    public FloatExp getPixelSpacing() {
+        return FloatExp.of(Math.min(Math.abs(xMax - xMin) / pixelWidth, Math.abs(yMax - yMin) / pixelHeight), mViewScaleExp);
+    }
+
+    @NotNull
+    public FloatExp getZoom() {
+        return FloatExp.of(Math.abs(DEFAULT_X_MAX - DEFAULT_X_MIN) / Math.abs(xMax - xMin), -mViewScaleExp);
+    }
+
+    /**
+     * Moves the high precision origin to the current view center, so that the view bounds stay small
+     * relative offsets with full double precision, no matter how deep the zoom is
+     * */
+    private void rebaseViewOrigin() {
+        final double cx = (xMin + xMax) / 2;
+        final double cy = (yMin + yMax) / 2;
+        if (cx == 0 && cy == 0)
+            return;
+
+        final MathContext mc = PerturbationEngine.mathContext(getPixelSpacing());
+        mOriginRe = mOriginRe.add(FloatExp.of(cx, mViewScaleExp).toBigDecimal(mc), mc);
+        mOriginImg = mOriginImg.add(FloatExp.of(cy, mViewScaleExp).toBigDecimal(mc), mc);
+
+        xMin -= cx;
+        xMax -= cx;
+        yMin -= cy;
+        yMax -= cy;
+
+        normalizeViewScale();
+    }
+
+    /**
+     * Rescales the view bounds by a power of two (folded into {@link #mViewScaleExp}) once their span gets too small
+     * or, after zooming back out, too large. This is what allows zooming past the double range of about 1e-308
+     * */
+    private void normalizeViewScale() {
+        final double span = Math.abs(xMax - xMin);
+        if (span == 0 || !Double.isFinite(span))
+            return;
+
+        final int e = Math.getExponent(span);
+        if (e >= -VIEW_SCALE_RENORMALIZE_BITS && (e <= VIEW_SCALE_RENORMALIZE_BITS || mViewScaleExp == 0))
+            return;
+
+        // Never scale beyond the default units
+        final int shift = Math.max(-e, mViewScaleExp);
+        if (shift == 0)
+            return;
+
+        xMin = Math.scalb(xMin, shift);
+        xMax = Math.scalb(xMax, shift);
+        yMin = Math.scalb(yMin, shift);
+        yMax = Math.scalb(yMax, shift);
+        mViewScaleExp -= shift;
+    }
+
     protected void onResized(int w, int h) {
         ensureYAspectRatio();
         invalidateFrame();
@@ -304,12 +984,60 @@ public class Main extends PApplet {
 
     @Nullable
     public String getMainStatusText() {
-        return String.format("Max Iters: %d   |   Divg Dist: %.2f   |   Seed (%s): %.3f %+.3fi  ", mMaxIterations, mDivergenceDistance, fractal.seedLabel, mSeed.re, mSeed.img);
+        return String.format("Max Iters: %d   |   Divg Dist: %.2f   |   Seed (%s): %.3f %+.3fi   |   Zoom: %s  ", mMaxIterations, mDivergenceDistance, fractal.seedLabel, mSeed.re, mSeed.img, getZoom().format(2));
     }
 
     @Nullable
     public String getSecStatusText() {
-        return String.format("Threads: %d   |   Animation: %s   |   Colors: %s", mThreadCount, animMode.displayName, colorScheme.displayName);
+        final String precision = mPrecisionMode == PrecisionMode.AUTO ?
+                "Auto (%s)".formatted(mFramePrecision.displayName) :
+                mFramePrecision.displayName + (mFramePrecisionInsufficient? " (too low)": "");
+
+        String text = String.format("Threads: %d   |   Render: %s   |   Precision: %s   |   Animation: %s   |   Colors: %s", mThreadCount, mRenderMode.displayName, precision, animMode.displayName, colorScheme.displayName);
+
+        if (mPeriodicityChecking) {
+            text += String.format("   |   Period Check: %s itrs saved", formatCount(mLastFrameItrSaved));
+        }
+
+        if (mFramePrecision == PrecisionMode.PERTURBATION && mFrameExtendedRange) {
+            text += "   |   Extended Range";
+        } else if (mFramePrecision == PrecisionMode.PERTURBATION && mSeriesApproximation) {
+            text += String.format("   |   Series Skip: %d itrs/px", mLastFrameSeriesSkip);
+        }
+
+        final BlaTable bla = mFrameBla;
+        final AttractingCycle cycle = mFrameCycle;
+        if (cycle != null) {
+            text += String.format("   |   Attracting Cycle: period %d", cycle.period);
+        }
+
+        if (mLastFrameInteriorFraction > 0) {
+            text += String.format("   |   Interior: %.1f%% resolved early", mLastFrameInteriorFraction * 100);
+        }
+
+        if (mFramePixelsPerUnit > 0) {
+            text += String.format("   |   Distance Estimation: %d fills refused", mLastFrameFillsRefused);
+        }
+
+        if (mFrameMirroredRows > 0) {
+            text += String.format("   |   Symmetry: %d rows mirrored", mFrameMirroredRows);
+        }
+
+        final TileScheduler.Stats workerStats = mLastFrameWorkerStats;
+        if (workerStats != null && mRenderMode == RenderMode.PER_PIXEL) {
+            text += String.format("   |   Workers: %.0f%% busy (min %.0f%%)   |   Tiles: %d (%d/worker%s)%s", workerStats.meanUtilization() * 100, workerStats.minUtilization() * 100,
+                    workerStats.totalTiles(), mTileTuner.getTilesPerWorker(), mTileTuner.isAuto()? " auto": "", mFrameTilesPredicted? " longest first": "");
+        }
+
+        if (mFrameSimd) {
+            text += String.format("   |   SIMD: %d lanes", mFramePrecision == PrecisionMode.FLOAT? SimdKernel.floatLanes(): SimdKernel.doubleLanes());
+        }
+
+        if (mFramePrecision == PrecisionMode.PERTURBATION && mBla && bla != null) {
+            text += String.format("   |   BLA: %.1f ms build, %.1fx", bla.buildTimeNs / 1e6, mLastFrameBlaSpeedup);
+        }
+
+        return text;
     }
 
     @Override
@@ -330,7 +1058,8 @@ public class Main extends PApplet {
 
             case BY_MOUSE -> {
                 if (!mAnimPaused) {
-                    mSeed = new Complex(map(mouseX, 0, width, xMin, xMax), map(mouseY, 0, height, yMax, yMin));
+                    mSeed = new Complex(mOriginRe.doubleValue() + Math.scalb(map(mouseX, 0, width, xMin, xMax), mViewScaleExp),
+                            mOriginImg.doubleValue() + Math.scalb(map(mouseY, 0, height, yMax, yMin), mViewScaleExp));
                     drawFrame();
                     frameDrawn = true;
                 }
@@ -380,6 +1109,8 @@ public class Main extends PApplet {
             case java.awt.event.KeyEvent.VK_F -> nextFractal();
             case java.awt.event.KeyEvent.VK_C -> nextColorScheme();
             case java.awt.event.KeyEvent.VK_H -> toggleHud();
+            case java.awt.event.KeyEvent.VK_M -> nextRenderMode();
+            case java.awt.event.KeyEvent.VK_P -> nextPrecisionMode();
             case java.awt.event.KeyEvent.VK_SPACE -> toggleAnimationPaused();
 
             case java.awt.event.KeyEvent.VK_R -> {
@@ -506,6 +1237,7 @@ public class Main extends PApplet {
             yMax = cy1;
 
             ensureYAspectRatio();
+            rebaseViewOrigin();
 
             invalidateFrame();
         }
@@ -559,9 +1291,35 @@ public class Main extends PApplet {
         }
     }
 
-    private void onFractalChanged(@Nullable Fractal prev, @NotNull Fractal cur) {
-        println(R.SHELL_ROOT + "Fractal: " + cur.displayName);
-//        resetSeed(false);
+    private void setFractal(@NotNull Fractal fractal) {
+        final Fractal prev = this.fractal;
+        this.fractal = fractal;
+
+        if (prev != fractal) {
+            onFractalChanged(prev, fractal);
+        }
+    }
+
+    protected void onFormulaChanged(@NotNull String formula) {
+        println(R.SHELL_FORMULA + "Formula: " + formula);
+        invalidateFrame();
+    }
+
+    /**
+     * Compiles the given formula, and switches to the Custom Formula fractal
+     *
+     * @throws IllegalArgumentException if the formula is malformed or too large
+     * @throws IllegalStateException if the compiled formula fails to load
+     * */
+    public void setFormula(@NotNull String formula) throws IllegalArgumentException, IllegalStateException {
+        FormulaKernel.CUSTOM.setFormula(formula);
+        onFormulaChanged(formula);
+        setFractal(Fractal.FORMULA);
+    }
+
+    private void onFractalChanged(@Nullable Fractal prev, @NotNull Fractal cur) {
+        println(R.SHELL_ROOT + "Fractal: " + cur.displayName);
+//        resetSeed(false);
         invalidateFrame();
     }
 
@@ -581,6 +1339,44 @@ public class Main extends PApplet {
 
 
 
+    private void nextRenderMode() {
+        setRenderMode(cycleEnum(RenderMode.class, mRenderMode));
+    }
+
+    private void setRenderMode(@NotNull RenderMode mode) {
+        if (mRenderMode == mode)
+            return;
+
+        final RenderMode prev = mRenderMode;
+        mRenderMode = mode;
+        onRenderModeChanged(prev, mode);
+    }
+
+    private void onRenderModeChanged(@Nullable RenderMode prev, @NotNull RenderMode cur) {
+        println(R.SHELL_RENDER_MODE + "Render Mode: " + cur.displayName);
+        invalidateFrame();
+    }
+
+
+    private void nextPrecisionMode() {
+        setPrecisionMode(cycleEnum(PrecisionMode.class, mPrecisionMode));
+    }
+
+    private void setPrecisionMode(@NotNull PrecisionMode mode) {
+        if (mPrecisionMode == mode)
+            return;
+
+        final PrecisionMode prev = mPrecisionMode;
+        mPrecisionMode = mode;
+        onPrecisionModeChanged(prev, mode);
+    }
+
+    private void onPrecisionModeChanged(@Nullable PrecisionMode prev, @NotNull PrecisionMode cur) {
+        println(R.SHELL_PRECISION_MODE + "Precision Mode: " + cur.displayName);
+        invalidateFrame();
+    }
+
+
     protected void onThreadCountChanged(int prevThreadCount, int threadCount, boolean update) {
         println(R.SHELL_THREADS + "Thread Count: %d -> %d".formatted(prevThreadCount, threadCount));
 
@@ -645,6 +1441,28 @@ public class Main extends PApplet {
 
 
 
+    protected void onExponentChanged(int prevExponent, int exponent, boolean update) {
+        println(R.SHELL_EXPONENT + "Multibrot Exponent: %d -> %d".formatted(prevExponent, exponent));
+
+        if (update) {
+            invalidateFrame();
+        }
+    }
+
+    private void setExponent(int exponent, boolean update) throws IllegalArgumentException {
+        if (exponent < EXPONENT_MIN || exponent > EXPONENT_MAX)
+            throw new IllegalArgumentException(String.format("Multibrot Exponent must be in range [%d, %d], given: %d", EXPONENT_MIN, EXPONENT_MAX, exponent));
+
+        final int prev = mExponent;
+        if (exponent != prev) {
+            mExponent = exponent;
+
+            onExponentChanged(prev, exponent, update);
+        }
+    }
+
+
+
     protected void onDivergenceDistanceChanged(double prevDivergenceDistance, double divergenceDistance, boolean update) {
         println(R.SHELL_DIVERGENCE_DISTANCE + "Divergence Distance: %f -> %f".formatted(prevDivergenceDistance, divergenceDistance));
 
@@ -699,6 +1517,129 @@ public class Main extends PApplet {
         onSeedChanged(prev, seed, update);
     }
 
+    protected void onPeriodicityCheckingChanged(boolean enabled) {
+        println(R.SHELL_PERIODICITY + "Periodicity Checking " + (enabled? "ON": "OFF"));
+        invalidateFrame();
+    }
+
+    public void setPeriodicityChecking(boolean enabled) {
+        if (mPeriodicityChecking == enabled)
+            return;
+
+        mPeriodicityChecking = enabled;
+        onPeriodicityCheckingChanged(enabled);
+    }
+
+    public void togglePeriodicityChecking() {
+        setPeriodicityChecking(!mPeriodicityChecking);
+    }
+
+    protected void onSeriesApproximationChanged(boolean enabled) {
+        println(R.SHELL_SERIES_APPROXIMATION + "Series Approximation " + (enabled? "ON": "OFF"));
+        invalidateFrame();
+    }
+
+    public void setSeriesApproximation(boolean enabled) {
+        if (mSeriesApproximation == enabled)
+            return;
+
+        mSeriesApproximation = enabled;
+        onSeriesApproximationChanged(enabled);
+    }
+
+    public void toggleSeriesApproximation() {
+        setSeriesApproximation(!mSeriesApproximation);
+    }
+
+    protected void onBlaChanged(boolean enabled) {
+        println(R.SHELL_BLA + "Bilinear Approximation " + (enabled? "ON": "OFF"));
+        invalidateFrame();
+    }
+
+    public void setBla(boolean enabled) {
+        if (mBla == enabled)
+            return;
+
+        mBla = enabled;
+        onBlaChanged(enabled);
+    }
+
+    public void toggleBla() {
+        setBla(!mBla);
+    }
+
+    protected void onSimdChanged(boolean enabled) {
+        println(R.SHELL_SIMD + "SIMD Kernel " + (enabled? "ON": "OFF"));
+        if (enabled && !VECTOR_API_AVAILABLE) {
+            println(R.SHELL_SIMD + "Vector API not available, falling back to the scalar kernel. Run with --add-modules jdk.incubator.vector");
+        }
+
+        invalidateFrame();
+    }
+
+    public void setSimd(boolean enabled) {
+        if (mSimd == enabled)
+            return;
+
+        mSimd = enabled;
+        onSimdChanged(enabled);
+    }
+
+    public void toggleSimd() {
+        setSimd(!mSimd);
+    }
+
+    protected void onSymmetryChanged(boolean enabled) {
+        println(R.SHELL_SYMMETRY + "Symmetry " + (enabled? "ON": "OFF"));
+        invalidateFrame();
+    }
+
+    public void setSymmetry(boolean enabled) {
+        if (mSymmetry == enabled)
+            return;
+
+        mSymmetry = enabled;
+        onSymmetryChanged(enabled);
+    }
+
+    public void toggleSymmetry() {
+        setSymmetry(!mSymmetry);
+    }
+
+    protected void onDistanceEstimationChanged(boolean enabled) {
+        println(R.SHELL_DISTANCE_ESTIMATION + "Distance Estimation " + (enabled? "ON": "OFF"));
+        invalidateFrame();
+    }
+
+    public void setDistanceEstimation(boolean enabled) {
+        if (mDistanceEstimation == enabled)
+            return;
+
+        mDistanceEstimation = enabled;
+        onDistanceEstimationChanged(enabled);
+    }
+
+    public void toggleDistanceEstimation() {
+        setDistanceEstimation(!mDistanceEstimation);
+    }
+
+    protected void onInteriorDetectionChanged(boolean enabled) {
+        println(R.SHELL_INTERIOR_DETECTION + "Interior Detection " + (enabled? "ON": "OFF"));
+        invalidateFrame();
+    }
+
+    public void setInteriorDetection(boolean enabled) {
+        if (mInteriorDetection == enabled)
+            return;
+
+        mInteriorDetection = enabled;
+        onInteriorDetectionChanged(enabled);
+    }
+
+    public void toggleInteriorDetection() {
+        setInteriorDetection(!mInteriorDetection);
+    }
+
     public void setDrawHud(boolean drawHud) {
         if (this.drawHud == drawHud)
             return;
@@ -739,6 +1680,9 @@ public class Main extends PApplet {
         xMax = DEFAULT_X_MAX;
         yMin = DEFAULT_Y_MIN;
         yMax = DEFAULT_Y_MAX;
+        mOriginRe = BigDecimal.ZERO;
+        mOriginImg = BigDecimal.ZERO;
+        mViewScaleExp = 0;
 
         ensureYAspectRatio();
         if (update)
@@ -773,41 +1717,620 @@ public class Main extends PApplet {
     }
 
     public int computePixelColor(int x, int y, @NotNull Fractal fractal) {
-        // Mapping pixel position to complex coordinates
-        final Complex pixelValue = new Complex(map(x, 0, pixelWidth, xMin, xMax), map(y, 0, pixelHeight, yMax, yMin));
+        return toColor(computePixelIterations(x, y, fractal), mMaxIterations);
+    }
+
+    /**
+     * @return lower bound of the distance from the pixel to the Mandelbrot Set (Z0 = 0), in pixels. Same mapping as
+     * {@link #computePixelIterations(int, int, Fractal)}. Only for frames with distance estimation, see {@link #mFramePixelsPerUnit}
+     * */
+    public double computePixelDistance(int x, int y) {
+        final double re = mFrameOriginRe + mapPixel(x, pixelWidth, xMin, xMax) * mFrameViewScale;
+        final double img = mFrameOriginImg + mapPixel(y, pixelHeight, yMax, yMin) * mFrameViewScale;
 
-        final int itr = switch (fractal) {
+        return estimateMandelbrotDistance(re, img, mMaxIterations, mDivergenceDistance) * mFramePixelsPerUnit;
+    }
 
-            // .................  Mandelbrot Set (Parameter space: each pixel is mapped to C, Z0 = constant)  ..........................
-            case MANDELBROT -> iterateMandelbrot(mSeed, pixelValue, mMaxIterations, mDivergenceDistance);
+    public int computePixelIterations(int x, int y, @NotNull Fractal fractal) {
+        // Mapping pixel position to complex coordinates, relative to the view origin (in view scale units)
+        final double sx = mapPixel(x, pixelWidth, xMin, xMax);
+        final double sy = mapPixel(y, pixelHeight, yMax, yMin);
 
-            // .................  Julia Set (Input space: each pixel is mapped to Z0, C = constant)  ..........................
-            case JULIA -> iterateMandelbrot(pixelValue, mSeed, mMaxIterations, mDivergenceDistance);
-        };
+        final PerturbationEngine.Reference ref = mFrameReference;
+        if (ref != null && mFrameExtendedRange) {
+            final FloatExpComplex d = new FloatExpComplex().set(
+                    mFrameRefOffsetExtRe.add(FloatExp.of(sx, mViewScaleExp)),
+                    mFrameRefOffsetExtImg.add(FloatExp.of(sy, mViewScaleExp))
+            );
+
+            final BlaTable bla = mFrameBla;
+            final int itr = PerturbationEngine.iterate(ref, bla, bla != null? mFrameBlaSteps: null, d, mMaxIterations, mDivergenceDistance);
+            if (bla != null) {
+                mFrameBlaIterations.add(itr);
+            }
+
+            return itr;
+        }
+
+        final double dx = sx * mFrameViewScale;
+        final double dy = sy * mFrameViewScale;
+
+        if (ref != null) {
+            final SeriesApproximation series = mFrameSeries;
+            final BlaTable bla = mFrameBla;
+            if (bla == null)
+                return PerturbationEngine.iterate(ref, series, mFrameRefOffsetRe + dx, mFrameRefOffsetImg + dy, mMaxIterations, mDivergenceDistance);
 
-        return toColor(itr, mMaxIterations);
+            final int itr = PerturbationEngine.iterate(ref, series, bla, mFrameBlaSteps, mFrameRefOffsetRe + dx, mFrameRefOffsetImg + dy, mMaxIterations, mDivergenceDistance);
+            mFrameBlaIterations.add(itr - (series != null? series.skip: 0));
+            return itr;
+        }
+
+        if (mFramePrecision == PrecisionMode.DOUBLE_DOUBLE) {
+            final double reHi = DoubleDouble.mapHi(mFrameOriginRe, mFrameOriginReLo, dx);
+            final double reLo = DoubleDouble.mapLo(mFrameOriginRe, mFrameOriginReLo, dx, reHi);
+            final double imgHi = DoubleDouble.mapHi(mFrameOriginImg, mFrameOriginImgLo, dy);
+            final double imgLo = DoubleDouble.mapLo(mFrameOriginImg, mFrameOriginImgLo, dy, imgHi);
+
+            return fractal.kernel.iterateDoubleDouble(mFrameKernelParams, reHi, reLo, imgHi, imgLo);
+        }
+
+        return fractal.kernel.iterate(mFrameKernelParams, mFrameOriginRe + dx, mFrameOriginImg + dy);
     }
 
-    private void drawFrame() {
-        loadPixels();
+    @NotNull
+    private ForkJoinPool getRenderPool() {
+        ForkJoinPool pool = mRenderPool;
+        if (pool == null || pool.getParallelism() != mThreadCount) {
+            if (pool != null) {
+                pool.shutdown();
+            }
 
-        if (mThreadCount > 1) {
-            List<Callable<Void>> tasks = createUpdateTasks(mThreadCount);
+            pool = new ForkJoinPool(mThreadCount);
+            mRenderPool = pool;
+        }
 
-            try {
-                Async.THREAD_POOL_EXECUTOR.invokeAll(tasks);
-            } catch (InterruptedException ignored) {
+        return pool;
+    }
+
+    private int @NotNull [] getIterationBuffer() {
+        final int size = pixelWidth * pixelHeight;
+
+        int[] buffer = mIterationBuffer;
+        if (buffer == null || buffer.length != size) {
+            buffer = new int[size];
+            mIterationBuffer = buffer;
+        }
+
+        return buffer;
+    }
+
+    /**
+     * Maps the iteration counts of the full frame to pixel colors, in parallel
+     * */
+    private void colorizePixels(@NotNull ForkJoinPool pool, int @NotNull [] iterations) {
+        final int maxIterations = mMaxIterations;
+        pool.submit(() -> IntStream.range(0, pixelHeight).parallel().forEach(y -> {
+            final int offset = y * pixelWidth;
+            for (int x = 0; x < pixelWidth; x++) {
+                pixels[offset + x] = toColor(iterations[offset + x], maxIterations);
+            }
+        })).join();
+    }
+
+    private void drawFrameSubdivision() {
+        final ForkJoinPool pool = getRenderPool();
+        final int[] iterations = getIterationBuffer();
+        final Fractal fractal = this.fractal;
+        final PixelEvaluator evaluator = (x, y) -> computePixelIterations(x, y, fractal);
+
+        mLastFrameFillsRefused = SubdivisionRenderer.render(pool, evaluator, mFramePixelsPerUnit > 0? this::computePixelDistance: null, mMaxIterations, iterations, pixelWidth, pixelHeight);
+
+        colorizePixels(pool, iterations);
+        updatePixels();
+    }
+
+    /**
+     * Renders the frame in tiles of rows (mirror rows left out), scheduled by a {@link TileScheduler}.
+     * <p>
+     * Consecutive frames (animation steps, small pans and zooms) have similar iteration maps. When the last frame had
+     * the same size, its measured per-row render times predict the cost of every row: tiles are cut to roughly equal
+     * predicted cost, and the most expensive ones are started first. Otherwise, tiles have an even number of rows,
+     * in order.
+     * <p>
+     * Either way, the frame is cut into about {@code workers * tilesPerWorker} tiles, as tuned by {@link TileTuner}
+     * */
+    private void drawFramePerPixel() {
+        final ForkJoinPool pool = getRenderPool();
+        final int[] rows = getFrameRows();
+        final long tileCount = (long) pool.getParallelism() * mTileTuner.getTilesPerWorker();
+        final int tileRows = (int) Math.max(1, (rows.length + tileCount - 1) / tileCount);
+
+        // Tile i spans rows[bounds[i], bounds[i + 1])
+        final int[] bounds;
+        int[] order = null;
+
+        final long[] lastCost = mLastFrameRowCost;
+        if (lastCost != null && lastCost.length == pixelHeight) {
+            final long[] predicted = new long[rows.length];
+            long total = 0;
+            for (int r = 0; r < rows.length; r++) {
+                predicted[r] = lastCost[rows[r]];
+                total += predicted[r];
             }
+
+            bounds = TileScheduler.partition(predicted, Math.max(1, total / tileCount), tileRows * TILE_ROWS_MAX_FACTOR);
+
+            final long[] tileCost = new long[bounds.length - 1];
+            for (int t = 0; t < tileCost.length; t++) {
+                for (int r = bounds[t]; r < bounds[t + 1]; r++) {
+                    tileCost[t] += predicted[r];
+                }
+            }
+
+            order = TileScheduler.longestFirst(tileCost);
         } else {
-            for (int y = 0; y < pixelHeight; y++) {
-                for (int x = 0; x < pixelWidth; x++) {
-                    pixels[x + y * pixelWidth] = computePixelColor(x, y, fractal);
+            final int tiles = (rows.length + tileRows - 1) / tileRows;
+            bounds = new int[tiles + 1];
+            for (int t = 0; t <= tiles; t++) {
+                bounds[t] = Math.min(rows.length, t * tileRows);
+            }
+        }
+
+        mFrameTilesPredicted = order != null;
+
+        long[] rowCost = mFrameRowCost;
+        if (rowCost == null || rowCost.length != pixelHeight) {
+            rowCost = new long[pixelHeight];
+            mFrameRowCost = rowCost;
+        }
+
+        // One SIMD scratch per render thread, reused across frames
+        final boolean simd = mFrameSimd;
+        mLastFrameWorkerStats = TileScheduler.run(pool, bounds.length - 1, order, tile -> {
+            SimdRow row = null;
+            if (simd) {
+                row = mWorkerSimdRow.get();
+                if (row == null || row.index.length != pixelWidth) {
+                    row = new SimdRow(pixelWidth);
+                    mWorkerSimdRow.set(row);
                 }
             }
 
-            updatePixels();
+            for (int r = bounds[tile]; r < bounds[tile + 1]; r++) {
+                drawRow(rows[r], row);
+            }
+        });
+
+        // Keep the iteration map for the next frame
+        mFrameRowCost = mLastFrameRowCost;
+        mLastFrameRowCost = rowCost;
+
+        if (mTileTuner.update(mLastFrameWorkerStats)) {
+            println(R.SHELL_TILES + "Tile size: %d tiles per worker (overhead %.1f%%, imbalance %.1f%%)".formatted(
+                    mTileTuner.getTilesPerWorker(), mTileTuner.getOverhead() * 100, mTileTuner.getImbalance() * 100));
+        }
+        updatePixels();
+    }
+
+    /**
+     * Pairs rows of the frame that mirror each other across the real axis. With a real seed, the orbits of conjugate
+     * points are conjugate, operation by operation (IEEE negation is exact), so their iteration counts are identical.
+     * Rows are only paired when their imaginary coordinates are exact negations of each other, so mirroring never
+     * changes a pixel.
+     * <p>
+     * Perturbation is left out: pixel deltas are taken from a reference point that is not on the real axis.
+     * Symmetry under z -> -z of Julia Sets is left out too: the divergence test is relative to z0, which is the pixel
+     * itself for Julia Sets, so the counts at z and -z differ.
+     * */
+    private void computeFrameSymmetry() {
+        mFrameMirrorOf = null;
+        mFrameMirroredRows = 0;
+        if (!mSymmetry || mRenderMode != RenderMode.PER_PIXEL || mFramePrecision == PrecisionMode.PERTURBATION || mSeed.img != 0
+                || !fractal.kernel.isQuadratic())
+            return;
+
+        // Imaginary coordinate of every row, same mapping as computePixelIterations. Decreasing with y
+        final int height = pixelHeight;
+        final double[] hi = new double[height];
+        final double[] lo = new double[height];
+        for (int y = 0; y < height; y++) {
+            final double dy = mapPixel(y, height, yMax, yMin) * mFrameViewScale;
+            if (mFramePrecision == PrecisionMode.DOUBLE_DOUBLE) {
+                hi[y] = DoubleDouble.mapHi(mFrameOriginImg, mFrameOriginImgLo, dy);
+                lo[y] = DoubleDouble.mapLo(mFrameOriginImg, mFrameOriginImgLo, dy, hi[y]);
+            } else {
+                hi[y] = mFrameOriginImg + dy;
+            }
+        }
+
+        final int[] mirrorOf = new int[height];
+        Arrays.fill(mirrorOf, -1);
+
+        int mirrored = 0;
+        int i = 0, j = height - 1;
+        while (i < j) {
+            // Compare row i with the mirror image of row j
+            final double mhi = -hi[j], mlo = -lo[j];
+            if (hi[i] == mhi && lo[i] == mlo) {
+                mirrorOf[i++] = j--;
+                mirrored++;
+            } else if (hi[i] > mhi || (hi[i] == mhi && lo[i] > mlo)) {
+                i++;        // the mirror of row i would be below row j
+            } else {
+                j--;
+            }
+        }
+
+        if (mirrored > 0) {
+            mFrameMirrorOf = mirrorOf;
+            mFrameMirroredRows = mirrored;
+        }
+    }
+
+    /**
+     * @return rows of the current frame to compute, in order. Rows mirroring another one are left out
+     * */
+    private int @NotNull [] getFrameRows() {
+        final int[] mirrorOf = mFrameMirrorOf;
+        final int height = pixelHeight;
+        if (mirrorOf == null || mirrorOf.length != height) {
+            final int[] rows = new int[height];
+            for (int y = 0; y < height; y++) {
+                rows[y] = y;
+            }
+
+            return rows;
+        }
+
+        final boolean[] mirror = new boolean[height];
+        for (int m: mirrorOf) {
+            if (m >= 0) {
+                mirror[m] = true;
+            }
+        }
+
+        final int[] rows = new int[height - mFrameMirroredRows];
+        int n = 0;
+        for (int y = 0; y < height; y++) {
+            if (!mirror[y]) {
+                rows[n++] = y;
+            }
+        }
+
+        return rows;
+    }
+
+    /**
+     * Per-row scratch of the SIMD kernel
+     * */
+    private static final class SimdRow {
+        final double[] z0Re, z0Img, cRe, cImg;
+        final float[] z0ReF, z0ImgF, cReF, cImgF;
+        final int[] index;
+        final int[] iterations;
+
+        SimdRow(int width) {
+            z0Re = new double[width];
+            z0Img = new double[width];
+            cRe = new double[width];
+            cImg = new double[width];
+            z0ReF = new float[width];
+            z0ImgF = new float[width];
+            cReF = new float[width];
+            cImgF = new float[width];
+            index = new int[width];
+            iterations = new int[width];
+        }
+    }
+
+    /**
+     * Computes and writes the colors of a row of pixels
+     *
+     * @param row SIMD scratch, or {@code null} to compute through the kernel of the fractal
+     * */
+    private void drawRow(int y, @Nullable SimdRow row) {
+        final long start = System.nanoTime();
+        computeRow(y, row);
+        final long cost = System.nanoTime() - start;
+
+        final long[] rowCost = mFrameRowCost;
+        final boolean recordCost = rowCost != null && y < rowCost.length;
+        if (recordCost) {
+            rowCost[y] = cost;
+        }
+
+        // Copy to the mirror row, if any
+        final int[] mirrorOf = mFrameMirrorOf;
+        if (mirrorOf != null && y < mirrorOf.length && mirrorOf[y] >= 0) {
+            System.arraycopy(pixels, y * pixelWidth, pixels, mirrorOf[y] * pixelWidth, pixelWidth);
+            if (recordCost) {
+                rowCost[mirrorOf[y]] = cost;
+            }
+        }
+    }
+
+    /**
+     * Computes and writes the colors of a row of pixels, without mirroring
+     * */
+    private void computeRow(int y, @Nullable SimdRow row) {
+        final Fractal fractal = this.fractal;
+        final double[] columnRe = mFrameColumnRe;
+        if (columnRe == null) {
+            for (int x = 0; x < pixelWidth; x++) {
+                pixels[x + y * pixelWidth] = computePixelColor(x, y, fractal);
+            }
+
+            return;
+        }
+
+        // Same mapping as computePixelIterations, so that counts are identical to the scalar kernel
+        final double img = mFrameOriginImg + mapPixel(y, pixelHeight, yMax, yMin) * mFrameViewScale;
+        if (row == null) {
+            // Whole row through the kernel of the fractal, dispatched once, into the scratch of the render thread
+            int[] iterations = mWorkerRowIterations.get();
+            if (iterations == null || iterations.length != columnRe.length) {
+                iterations = new int[columnRe.length];
+                mWorkerRowIterations.set(iterations);
+            }
+
+            fractal.kernel.iterateRow(mFrameKernelParams, columnRe, img, iterations);
+
+            final int maxIterations = mMaxIterations;
+            for (int x = 0; x < iterations.length; x++) {
+                pixels[x + y * pixelWidth] = toColor(iterations[x], maxIterations);
+            }
+
+            return;
+        }
+
+        final boolean mandelbrot = fractal == Fractal.MANDELBROT;
+        final boolean interiorCheck = mandelbrot && mSeed.isZero();
+        final int maxIterations = mMaxIterations;
+
+        int count = 0;
+        for (int x = 0; x < pixelWidth; x++) {
+            final double re = columnRe[x];
+            if (interiorCheck && isInMainCardioidOrBulb(re, img)) {
+                pixels[x + y * pixelWidth] = toColor(maxIterations, maxIterations);
+                continue;
+            }
+
+            row.index[count] = x;
+            row.z0Re[count] = mandelbrot? mSeed.re: re;
+            row.z0Img[count] = mandelbrot? mSeed.img: img;
+            row.cRe[count] = mandelbrot? re: mSeed.re;
+            row.cImg[count] = mandelbrot? img: mSeed.img;
+            count++;
+        }
+
+        if (mFramePrecision == PrecisionMode.FLOAT) {
+            for (int i = 0; i < count; i++) {
+                row.z0ReF[i] = (float) row.z0Re[i];
+                row.z0ImgF[i] = (float) row.z0Img[i];
+                row.cReF[i] = (float) row.cRe[i];
+                row.cImgF[i] = (float) row.cImg[i];
+            }
+
+            SimdKernel.iterateMandelbrotFloat(row.z0ReF, row.z0ImgF, row.cReF, row.cImgF, row.iterations, count, maxIterations, (float) mDivergenceDistance);
+        } else {
+            SimdKernel.iterateMandelbrot(row.z0Re, row.z0Img, row.cRe, row.cImg, row.iterations, count, maxIterations, mDivergenceDistance);
+        }
+
+        for (int i = 0; i < count; i++) {
+            pixels[row.index[i] + y * pixelWidth] = toColor(row.iterations[i], maxIterations);
+        }
+    }
+
+    /**
+     * Returns the reference orbit for the given inputs. Orbits are computed in the background: while a new one is pending,
+     * frames keep rendering with the previous orbit if it can stand in, and are redrawn once the new orbit is ready.
+     * Otherwise, this blocks until the new orbit is computed.
+     * <p>
+     * While the view moves, a pending orbit that can stand in for the new inputs is left to finish, instead of being
+     * restarted on every frame. Otherwise, it is cancelled
+     *
+     * @param maxOffset largest allowed offset of a stand-in orbit from the view origin
+     * */
+    @NotNull
+    private PerturbationEngine.Reference obtainReference(@NotNull PerturbationEngine.Key key, @NotNull FloatExp maxOffset) {
+        final PerturbationEngine.Reference current = mFrameReference;
+        if (current != null && current.matches(key))
+            return current;
+
+        CompletableFuture<PerturbationEngine.Reference> pending = mPendingReference;
+        final PerturbationEngine.Key pendingKey = mPendingReferenceKey;
+        if (pending == null || pendingKey == null || !(key.equals(pendingKey)
+                || (!pending.isDone() && pendingKey.canStandInFor(key, maxOffset)))) {
+            if (pending != null) {
+                pending.cancel(false);      // inputs changed, result is of no use anymore. Stops the orbit loop at its next check
+            }
+
+            pending = submitReference(key);
+            pending.thenRun(this::invalidateFrame);     // redraw with the new orbit
+            mPendingReference = pending;
+            mPendingReferenceKey = key;
+        }
+
+        if (!pending.isDone() && current != null && current.canStandInFor(key, maxOffset))
+            return current;
+
+        mPendingReference = null;
+        mPendingReferenceKey = null;
+        try {
+            return pending.join();
+        } catch (CompletionException e) {
+            return PerturbationEngine.computeReference(key);
+        }
+    }
+
+    /**
+     * Computes the reference orbit of the given inputs in the background. Cancelling the returned future stops the
+     * computation itself, not only the delivery of its result
+     * */
+    @NotNull
+    private static CompletableFuture<PerturbationEngine.Reference> submitReference(@NotNull PerturbationEngine.Key key) {
+        final CompletableFuture<PerturbationEngine.Reference> future = new CompletableFuture<>();
+        Async.THREAD_POOL_EXECUTOR.execute(() -> {
+            try {
+                future.complete(PerturbationEngine.computeReference(key, future::isCancelled));
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * @return the largest absolute coordinate the orbits of the current view start from: view corners or seed
+     * */
+    private double getMaxViewCoordinate() {
+        final double scale = Math.scalb(1.0, mViewScaleExp);
+        final double maxRe = Math.abs(mFrameOriginRe) + Math.max(Math.abs(xMin), Math.abs(xMax)) * scale;
+        final double maxImg = Math.abs(mFrameOriginImg) + Math.max(Math.abs(yMin), Math.abs(yMax)) * scale;
+        return Math.max(Math.max(maxRe, maxImg), Math.max(Math.abs(mSeed.re), Math.abs(mSeed.img)));
+    }
+
+    /**
+     * Resolves the precision tier of the frame: the selected one, or the cheapest one that resolves the view in Auto mode
+     * */
+    private void resolveFramePrecision() {
+        final FloatExp spacing = getPixelSpacing();
+        final double maxCoord = getMaxViewCoordinate();
+
+        final PrecisionMode mode = mPrecisionMode;
+        if (mode == PrecisionMode.AUTO) {
+            mFramePrecision = PrecisionManager.select(spacing, maxCoord, !mPeriodicityChecking && !mInteriorDetection);
+            mFramePrecisionInsufficient = false;
+        } else {
+            mFramePrecision = mode;
+            mFramePrecisionInsufficient = !PrecisionManager.resolves(mode, spacing, maxCoord);
+        }
+
+        // Float and deep zoom tiers are specific to Z^2 + C, other kernels always iterate in double
+        if (!fractal.kernel.isQuadratic() && mFramePrecision != PrecisionMode.DOUBLE) {
+            mFramePrecision = PrecisionMode.DOUBLE;
+            mFramePrecisionInsufficient = !PrecisionManager.resolves(PrecisionMode.DOUBLE, spacing, maxCoord);
+        }
+    }
+
+    private void preFrame() {
+        mFrameOriginRe = mOriginRe.doubleValue();
+        mFrameOriginImg = mOriginImg.doubleValue();
+        mFrameOriginReLo = mOriginRe.subtract(new BigDecimal(mFrameOriginRe)).doubleValue();
+        mFrameOriginImgLo = mOriginImg.subtract(new BigDecimal(mFrameOriginImg)).doubleValue();
+        mFrameViewScale = Math.scalb(1.0, mViewScaleExp);
+        resolveFramePrecision();
+
+        if (mFramePrecision == PrecisionMode.PERTURBATION) {
+            final boolean julia = fractal == Fractal.JULIA;
+            final FloatExp spacing = getPixelSpacing();
+            final MathContext mc = PerturbationEngine.mathContext(spacing);
+            mFrameExtendedRange = PerturbationEngine.needsExtendedRange(spacing);
+
+            final FloatExp spanRe = FloatExp.of(Math.abs(xMax - xMin), mViewScaleExp);
+            final FloatExp spanImg = FloatExp.of(Math.abs(yMax - yMin), mViewScaleExp);
+
+            final PerturbationEngine.Key key = new PerturbationEngine.Key(julia, mOriginRe, mOriginImg, mSeed, mMaxIterations, mDivergenceDistance, mc);
+            final PerturbationEngine.Reference ref = obtainReference(key, (spanRe.compareTo(spanImg) >= 0? spanRe: spanImg).multiply(REFERENCE_STAND_IN_MAX_OFFSET_SPANS));
+
+            // Pixels are iterated relative to the reference point, which lags behind the view origin while a new orbit is pending
+            mFrameRefOffsetExtRe = FloatExp.of(mOriginRe.subtract(ref.key.refRe));
+            mFrameRefOffsetExtImg = FloatExp.of(mOriginImg.subtract(ref.key.refImg));
+            mFrameRefOffsetRe = mFrameRefOffsetExtRe.doubleValue();
+            mFrameRefOffsetImg = mFrameRefOffsetExtImg.doubleValue();
+
+            final double maxRe = spanRe.doubleValue() / 2 + Math.abs(mFrameRefOffsetRe);
+            final double maxImg = spanImg.doubleValue() / 2 + Math.abs(mFrameRefOffsetImg);
+
+            mFrameReference = ref;
+
+            // Series coefficients grow like 1 / |dc|^k, which overflows doubles in extended range
+            mFrameSeries = mSeriesApproximation && !mFrameExtendedRange ?
+                    SeriesApproximation.compute(ref, maxRe, maxImg, SeriesApproximation.DEFAULT_TERMS, mMaxIterations, mDivergenceDistance) :
+                    null;
+            mFrameBla = mBla? ref.getBlaTable(Math.hypot(maxRe, maxImg)): null;
+        } else {
+            mFrameReference = null;
+            mFrameExtendedRange = false;
+            mFrameRefOffsetRe = mFrameRefOffsetImg = 0;
+            mFrameRefOffsetExtRe = mFrameRefOffsetExtImg = FloatExp.ZERO;
+            mFrameSeries = null;
+            mFrameBla = null;
         }
 
+        mLastFrameSeriesSkip = mFrameSeries != null? mFrameSeries.skip: 0;
+
+        if (mPeriodicityChecking) {
+            mFramePeriodTolerance = getPixelSpacing().doubleValue() * PERIODICITY_TOLERANCE_PIXEL_FRACTION;
+        } else {
+            mFramePeriodTolerance = -1;
+        }
+
+        // The SIMD kernel has no periodicity checking nor interior detection, and only pays off on whole rows
+        mFrameSimd = mSimd && VECTOR_API_AVAILABLE && mRenderMode == RenderMode.PER_PIXEL && fractal.kernel.isQuadratic() && !mInteriorDetection
+                && (mFramePrecision == PrecisionMode.FLOAT || (mFramePrecision == PrecisionMode.DOUBLE && mFramePeriodTolerance <= 0));
+        computeFrameSymmetry();
+
+        // Distance estimates only hold for the Mandelbrot Set with Z0 = 0 (bands around it are then nested), in double
+        // precision or lower. Divergence distance below 2 lets some exterior orbits come back, so no estimates then either
+        mFramePixelsPerUnit = mDistanceEstimation && mRenderMode == RenderMode.SUBDIVISION && fractal == Fractal.MANDELBROT && mSeed.isZero()
+                && (mFramePrecision == PrecisionMode.FLOAT || mFramePrecision == PrecisionMode.DOUBLE) && mDivergenceDistance >= 2 ?
+                1 / getPixelSpacing().doubleValue() : 0;
+
+        // Attracting cycle of the Julia seed with interior detection, searched once per seed. The float tier has no interior
+        // detection, perturbation has its own interior handling
+        if (mInteriorDetection && fractal == Fractal.JULIA && mFramePrecision != PrecisionMode.FLOAT && mFramePrecision != PrecisionMode.PERTURBATION) {
+            if (!mSeed.equals(mCycleSeed)) {
+                mCycleSeed = mSeed;
+                mFrameCycle = AttractingCycle.find(mSeed.re, mSeed.img);
+            }
+        } else {
+            mFrameCycle = null;
+            mCycleSeed = null;
+        }
+
+        mFrameKernelParams = new FractalKernel.Frame(mSeed.re, mSeed.img, mMaxIterations, mDivergenceDistance, mExponent,
+                mFramePrecision == PrecisionMode.FLOAT, mFramePeriodTolerance, mFrameItrSaved,
+                mInteriorDetection, mFrameCycle, mFrameInteriorResolved);
+
+        // Same mapping as computePixelIterations, computed once for all rows of the frame
+        if (mFramePrecision == PrecisionMode.FLOAT || mFramePrecision == PrecisionMode.DOUBLE) {
+            final double[] columnRe = new double[pixelWidth];
+            for (int x = 0; x < pixelWidth; x++) {
+                columnRe[x] = mFrameOriginRe + mapPixel(x, pixelWidth, xMin, xMax) * mFrameViewScale;
+            }
+
+            mFrameColumnRe = columnRe;
+        } else {
+            mFrameColumnRe = null;
+        }
+
+        mFrameItrSaved.reset();
+        mFrameInteriorResolved.reset();
+        mFrameBlaIterations.reset();
+        mFrameBlaSteps.reset();
+    }
+
+    private void postFrame() {
+        mLastFrameItrSaved = mFrameItrSaved.sum();
+        mLastFrameInteriorFraction = (double) mFrameInteriorResolved.sum() / Math.max(1, pixelWidth * pixelHeight);
+
+        final long blaSteps = mFrameBlaSteps.sum();
+        mLastFrameBlaSpeedup = blaSteps > 0? (double) mFrameBlaIterations.sum() / blaSteps: 0;
+    }
+
+    private void drawFrame() {
+        preFrame();
+        loadPixels();
+
+        switch (mRenderMode) {
+            case PER_PIXEL -> drawFramePerPixel();
+            case SUBDIVISION -> drawFrameSubdivision();
+        }
+
+        postFrame();
         drawHud();
     }
 
@@ -866,7 +2389,11 @@ public class Main extends PApplet {
             pushStyle();
             textFont(pdSans, getTextSize(TITLE_SIZE));
 
-            final String text = fractal.displayName;
+            final String text = switch (fractal) {
+                case FORMULA -> fractal.displayName + ": " + FormulaKernel.CUSTOM.getFormula();
+                case MULTIBROT, MULTIBROT_JULIA -> "%s (d = %d)".formatted(fractal.displayName, mExponent);
+                default -> fractal.displayName;
+            };
 
             float w = textWidth(text) + (h_offset * 2);
             float h = (textAscent() + textDescent()) + (v_offset * 2);
@@ -918,30 +2445,6 @@ public class Main extends PApplet {
         invalidateFrame(false);
     }
 
-    @NotNull
-    private List<Callable<Void>> createUpdateTasks(int threads) {
-        List<Callable<Void>> tasks = new LinkedList<>();
-        final int y_step = pixelHeight / threads;
-
-        for (int i = 0; i < threads; i++) {
-            final int y_start = i * y_step;
-            final int y_end = (i == threads - 1) ? pixelHeight : y_start + y_step;
-
-            tasks.add(() -> {
-                for (int y = y_start; y < y_end; y++) {
-                    for (int x = 0; x < pixelWidth; x++) {
-                        pixels[x + y * pixelWidth] = computePixelColor(x, y, fractal);
-                    }
-                }
-
-                updatePixels(0, y_start, pixelWidth, y_end);
-                return null;
-            });
-        }
-        return tasks;
-    }
-
-
     public static void init(String[] args) {
         R.createDescriptionReadme();
     }
@@ -988,12 +2491,154 @@ public class Main extends PApplet {
                 }
             } else if (cmd.equals("hud") || cmd.equals("toggle hud")) {
                 app.toggleHud();
+            } else if (cmd.startsWith("period")) {
+                final String left = cmd.substring(6).trim();
+                final Runnable usage_pr = () -> println(R.SHELL_PERIODICITY + "Periodicity Checking: %s  |  Iterations saved in last frame: %d\nUsage: period [on | off | toggle]\nExample: period on".formatted(app.mPeriodicityChecking? "ON": "OFF", app.mLastFrameItrSaved));
+
+                switch (left) {
+                    case "" -> usage_pr.run();
+                    case "on" -> app.setPeriodicityChecking(true);
+                    case "off" -> app.setPeriodicityChecking(false);
+                    case "toggle" -> app.togglePeriodicityChecking();
+                    default -> {
+                        System.err.println(R.SHELL_PERIODICITY + "Invalid option <" + left + ">");
+                        usage_pr.run();
+                    }
+                }
+            } else if (cmd.startsWith("render")) {
+                final String left = cmd.substring(6).trim();
+                final Runnable usage_pr = () -> println(R.SHELL_RENDER_MODE + "Render Mode: %s\nUsage: render [next | pixel | subdivision]\nExample: render subdivision".formatted(app.mRenderMode.displayName));
+
+                switch (left) {
+                    case "" -> usage_pr.run();
+                    case "next" -> app.nextRenderMode();
+                    case "pixel" -> app.setRenderMode(RenderMode.PER_PIXEL);
+                    case "subdivision" -> app.setRenderMode(RenderMode.SUBDIVISION);
+                    default -> {
+                        System.err.println(R.SHELL_RENDER_MODE + "Invalid render mode <" + left + ">");
+                        usage_pr.run();
+                    }
+                }
+            } else if (cmd.startsWith("precision")) {
+                final String left = cmd.substring(9).trim();
+                final Runnable usage_pr = () -> println(R.SHELL_PRECISION_MODE + "Precision Mode: %s\nUsage: precision [next | auto | float | double | dd | perturbation]\nExample: precision auto".formatted(app.mPrecisionMode.displayName));
+
+                switch (left) {
+                    case "" -> usage_pr.run();
+                    case "next" -> app.nextPrecisionMode();
+                    case "auto" -> app.setPrecisionMode(PrecisionMode.AUTO);
+                    case "float" -> app.setPrecisionMode(PrecisionMode.FLOAT);
+                    case "double" -> app.setPrecisionMode(PrecisionMode.DOUBLE);
+                    case "dd", "double-double" -> app.setPrecisionMode(PrecisionMode.DOUBLE_DOUBLE);
+                    case "perturbation" -> app.setPrecisionMode(PrecisionMode.PERTURBATION);
+                    default -> {
+                        System.err.println(R.SHELL_PRECISION_MODE + "Invalid precision mode <" + left + ">");
+                        usage_pr.run();
+                    }
+                }
+            } else if (cmd.startsWith("series")) {
+                final String left = cmd.substring(6).trim();
+                final Runnable usage_pr = () -> println(R.SHELL_SERIES_APPROXIMATION + "Series Approximation: %s  |  Iterations skipped per pixel in last frame: %d\nUsage: series [on | off | toggle]\nExample: series on".formatted(app.mSeriesApproximation? "ON": "OFF", app.mLastFrameSeriesSkip));
+
+                switch (left) {
+                    case "" -> usage_pr.run();
+                    case "on" -> app.setSeriesApproximation(true);
+                    case "off" -> app.setSeriesApproximation(false);
+                    case "toggle" -> app.toggleSeriesApproximation();
+                    default -> {
+                        System.err.println(R.SHELL_SERIES_APPROXIMATION + "Invalid option <" + left + ">");
+                        usage_pr.run();
+                    }
+                }
+            } else if (cmd.startsWith("bla")) {
+                final String left = cmd.substring(3).trim();
+                final Runnable usage_pr = () -> println(R.SHELL_BLA + "Bilinear Approximation: %s  |  Iterations per step in last frame: %.2f\nUsage: bla [on | off | toggle]\nExample: bla on".formatted(app.mBla? "ON": "OFF", app.mLastFrameBlaSpeedup));
+
+                switch (left) {
+                    case "" -> usage_pr.run();
+                    case "on" -> app.setBla(true);
+                    case "off" -> app.setBla(false);
+                    case "toggle" -> app.toggleBla();
+                    default -> {
+                        System.err.println(R.SHELL_BLA + "Invalid option <" + left + ">");
+                        usage_pr.run();
+                    }
+                }
+            } else if (cmd.startsWith("simd")) {
+                final String left = cmd.substring(4).trim();
+                final Runnable usage_pr = () -> println(R.SHELL_SIMD + "SIMD Kernel: %s  |  Vector API: %s\nUsage: simd [on | off | toggle]\nExample: simd on".formatted(app.mSimd? "ON": "OFF", VECTOR_API_AVAILABLE? "available": "not available"));
+
+                switch (left) {
+                    case "" -> usage_pr.run();
+                    case "on" -> app.setSimd(true);
+                    case "off" -> app.setSimd(false);
+                    case "toggle" -> app.toggleSimd();
+                    default -> {
+                        System.err.println(R.SHELL_SIMD + "Invalid option <" + left + ">");
+                        usage_pr.run();
+                    }
+                }
+            } else if (cmd.startsWith("symmetry")) {
+                final String left = cmd.substring(8).trim();
+                final Runnable usage_pr = () -> println(R.SHELL_SYMMETRY + "Symmetry: %s  |  Rows mirrored in last frame: %d\nUsage: symmetry [on | off | toggle]\nExample: symmetry off".formatted(app.mSymmetry? "ON": "OFF", app.mFrameMirroredRows));
+
+                switch (left) {
+                    case "" -> usage_pr.run();
+                    case "on" -> app.setSymmetry(true);
+                    case "off" -> app.setSymmetry(false);
+                    case "toggle" -> app.toggleSymmetry();
+                    default -> {
+                        System.err.println(R.SHELL_SYMMETRY + "Invalid option <" + left + ">");
+                        usage_pr.run();
+                    }
+                }
+            } else if (cmd.equals("de") || cmd.startsWith("de ")) {
+                final String left = cmd.substring(2).trim();
+                final Runnable usage_pr = () -> println(R.SHELL_DISTANCE_ESTIMATION + "Distance Estimation: %s\nUsage: de [on | off | toggle]\nExample: de on".formatted(app.mDistanceEstimation? "ON": "OFF"));
+
+                switch (left) {
+                    case "" -> usage_pr.run();
+                    case "on" -> app.setDistanceEstimation(true);
+                    case "off" -> app.setDistanceEstimation(false);
+                    case "toggle" -> app.toggleDistanceEstimation();
+                    default -> {
+                        System.err.println(R.SHELL_DISTANCE_ESTIMATION + "Invalid option <" + left + ">");
+                        usage_pr.run();
+                    }
+                }
+            } else if (cmd.startsWith("interior")) {
+                final String left = cmd.substring(8).trim();
+                final Runnable usage_pr = () -> println(R.SHELL_INTERIOR_DETECTION + "Interior Detection: %s  |  Pixels resolved early in last frame: %.1f%%\nUsage: interior [on | off | toggle]\nExample: interior on".formatted(app.mInteriorDetection? "ON": "OFF", app.mLastFrameInteriorFraction * 100));
+
+                switch (left) {
+                    case "" -> usage_pr.run();
+                    case "on" -> app.setInteriorDetection(true);
+                    case "off" -> app.setInteriorDetection(false);
+                    case "toggle" -> app.toggleInteriorDetection();
+                    default -> {
+                        System.err.println(R.SHELL_INTERIOR_DETECTION + "Invalid option <" + left + ">");
+                        usage_pr.run();
+                    }
+                }
             } else if (cmd.equals("c") || cmd.equals("color") || cmd.equals("change color") || cmd.equals("color scheme")) {
                 app.nextColorScheme();
             } else if (cmd.equals("anim") || cmd.equals("animation") || cmd.equals("change anim") || cmd.equals("sa") ||  cmd.equals("change sa")) {
                 app.nextSeedAnimationMode();
             } else if (cmd.equals("fractal") || cmd.equals("change fractal")) {
                 app.nextFractal();
+            } else if (cmd.startsWith("formula")) {
+                final String left = cmd.substring(7).trim();
+                if (left.isEmpty()) {
+                    println(R.SHELL_FORMULA + "Current Formula: %s | Default: %s\nUsage: formula <expression in z and c>\nExample: formula z^3 + c".formatted(FormulaKernel.CUSTOM.getFormula(), FormulaKernel.DEFAULT_FORMULA));
+                } else {
+                    try {
+                        app.setFormula(left);
+                    } catch (IllegalArgumentException exc) {
+                        System.err.println(R.SHELL_FORMULA + "Invalid formula: " + exc.getMessage());
+                    } catch (IllegalStateException exc) {
+                        System.err.println(R.SHELL_FORMULA + exc.getMessage() + ": " + exc.getCause());
+                    }
+                }
             } else if (cmd.equals("save") || cmd.equals("screenshot") || cmd.equals("snapshot")) {
                 app.snapshot();
             } else if (cmd.startsWith("seed")) {
@@ -1039,6 +2684,75 @@ public class Main extends PApplet {
                     t.printStackTrace(System.err);
                     usage_pr.run();
                 }
+            } else if (cmd.startsWith("exponent")) {
+                final String left = cmd.substring(8).trim();
+                final Runnable usage_pr = () -> println(R.SHELL_EXPONENT + String.format("Set the exponent d of the Multibrot Sets Z^d + C. Current: %d  |  Default: %d\nUsage: exponent <d>. Should be an integer in range [%d, %d]\nExample: exponent 4", app.mExponent, EXPONENT_DEFAULT, EXPONENT_MIN, EXPONENT_MAX));
+
+                if (left.isEmpty()) {
+                    usage_pr.run();
+                    continue;
+                }
+
+                try {
+                    final int exponent = Integer.parseInt(left);
+                    app.setExponent(exponent, true);
+                }  catch (NumberFormatException nfe) {
+                    System.err.println(R.SHELL_EXPONENT + "Exponent must be an INTEGER, given: " + left);
+                    usage_pr.run();
+                } catch (IllegalArgumentException iae) {
+                    System.err.println(R.SHELL_EXPONENT + iae.getMessage());
+                    usage_pr.run();
+                } catch (Throwable t) {
+                    System.err.println(R.SHELL_EXPONENT + "Failed to set Multibrot Exponent");
+                    t.printStackTrace(System.err);
+                    usage_pr.run();
+                }
+            } else if (cmd.equals("workers")) {
+                final TileScheduler.Stats stats = app.mLastFrameWorkerStats;
+                if (stats == null) {
+                    println(R.SHELL_WORKERS + "No frame rendered in tiles yet. Worker utilization is reported for the per-pixel render mode");
+                    continue;
+                }
+
+                final StringBuilder sb = new StringBuilder(R.SHELL_WORKERS + "Worker utilization of the last tiled frame (%.1f ms):".formatted(stats.wallNanos() / 1e6));
+                for (int i = 0; i < stats.workers(); i++) {
+                    final boolean caller = i == stats.workers() - 1;
+                    if (caller && stats.tiles(i) == 0)
+                        continue;
+
+                    sb.append("\n  %s: %5.1f%% busy, %d tiles".formatted(caller? "caller": "worker " + i, stats.utilization(i) * 100, stats.tiles(i)));
+                }
+
+                sb.append("\n  mean: %.1f%% | min: %.1f%%".formatted(stats.meanUtilization() * 100, stats.minUtilization() * 100));
+                println(sb.toString());
+            } else if (cmd.startsWith("tiles")) {
+                final String left = cmd.substring(5).trim();
+                final TileTuner tuner = app.mTileTuner;
+                final Runnable usage_pr = () -> println(R.SHELL_TILES + String.format("Tile size: %d tiles per worker (%s)  |  Overhead: %.1f%%  |  Imbalance: %.1f%%\nUsage: tiles [auto | <tiles_per_worker>]. Tiles per worker should be an integer in range [%d, %d]\nExample: tiles 16",
+                        tuner.getTilesPerWorker(), tuner.isAuto()? "auto": "fixed", tuner.getOverhead() * 100, tuner.getImbalance() * 100, TileTuner.MIN_TILES_PER_WORKER, TileTuner.MAX_TILES_PER_WORKER));
+
+                if (left.isEmpty()) {
+                    usage_pr.run();
+                    continue;
+                }
+
+                if (left.equals("auto")) {
+                    tuner.setAuto();
+                    println(R.SHELL_TILES + "Tile size: auto, from %d tiles per worker".formatted(tuner.getTilesPerWorker()));
+                    continue;
+                }
+
+                try {
+                    tuner.setTilesPerWorker(Integer.parseInt(left));
+                    println(R.SHELL_TILES + "Tile size: %d tiles per worker (fixed)".formatted(tuner.getTilesPerWorker()));
+                    app.invalidateFrame();
+                } catch (NumberFormatException nfe) {
+                    System.err.println(R.SHELL_TILES + "Tiles per worker must be an INTEGER, given: " + left);
+                    usage_pr.run();
+                } catch (IllegalArgumentException iae) {
+                    System.err.println(R.SHELL_TILES + iae.getMessage());
+                    usage_pr.run();
+                }
             } else if (cmd.startsWith("divdist")) {
                 final String left = cmd.substring(7).trim();
                 final Runnable usage_pr = () -> println(R.SHELL_DIVERGENCE_DISTANCE + String.format("Set Divergence Distance. Current: %f  |  Default: %f\nUsage: divdist <divergence_distance>. Should be a float in range [%f, %f]\nExample: divdist 21.87", app.mDivergenceDistance, DIVERGENCE_DISTANCE_DEFAULT, DIVERGENCE_DISTANCE_MIN, DIVERGENCE_DISTANCE_MAX));
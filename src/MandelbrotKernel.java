@@ -0,0 +1,47 @@
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Kernel of the Mandelbrot Set. Parameter space: each pixel is mapped to C, Z0 = seed
+ * */
+public final class MandelbrotKernel implements FractalKernel {
+
+    /**
+     * Cycle of the last pixel proved interior by each worker thread, see {@link Main#iterateMandelbrotInterior}
+     * */
+    private static final ThreadLocal<AttractingCycle[]> INTERIOR_HINT = ThreadLocal.withInitial(() -> new AttractingCycle[1]);
+
+    @Override
+    public int iterate(@NotNull Frame frame, double re, double img) {
+        // Interior short-circuit only holds for z0 = 0, other seeds fall back to the full iteration
+        if (frame.isSeedZero() && Main.isInMainCardioidOrBulb(re, img))
+            return frame.maxIterations;
+
+        if (frame.floats)
+            return Main.iterateMandelbrotFloat((float) frame.seedRe, (float) frame.seedImg, (float) re, (float) img, frame.maxIterations, (float) frame.divergeDistance);
+
+        if (frame.interiorDetection)
+            return Main.iterateMandelbrotInterior(frame.seedRe, frame.seedImg, re, img, frame.maxIterations, frame.divergeDistance, INTERIOR_HINT.get(), frame.interiorResolved);
+
+        return frame.periodTolerance > 0 ?
+                Main.iterateMandelbrot(new Complex(frame.seedRe, frame.seedImg), new Complex(re, img), frame.maxIterations, frame.divergeDistance, frame.periodTolerance, frame.itrSaved) :
+                Main.iterateMandelbrotDeferred(frame.seedRe, frame.seedImg, re, img, frame.maxIterations, frame.divergeDistance);
+    }
+
+    @Override
+    public void iterateRow(@NotNull Frame frame, double @NotNull [] re, double img, int @NotNull [] out) {
+        for (int i = 0; i < re.length; i++) {
+            out[i] = iterate(frame, re[i], img);
+        }
+    }
+
+    @Override
+    public int iterateDoubleDouble(@NotNull Frame frame, double reHi, double reLo, double imgHi, double imgLo) {
+        // No interior short-circuit: the cardioid test in double precision is not exact enough at these zooms
+        return DoubleDouble.iterateMandelbrot(frame.seedRe, 0, frame.seedImg, 0, reHi, reLo, imgHi, imgLo, frame.maxIterations, frame.divergeDistance);
+    }
+
+    @Override
+    public boolean isQuadratic() {
+        return true;
+    }
+}
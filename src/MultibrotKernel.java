@@ -0,0 +1,259 @@
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Kernel of the Multibrot Sets Z^d + C, with d = {@link Frame#exponent}. Input space is that of the Mandelbrot Set
+ * (pixel is C, Z0 = seed), or of the Julia Set (pixel is Z0, C = seed).
+ * <p>
+ * Every exponent from 2 to {@link #MAX_UNROLLED_EXPONENT} has its own loop with the power unrolled into a minimal
+ * chain of squares and products. Larger exponents use binary exponentiation, still free of {@code Math.pow} and
+ * polar form, which cost an order of magnitude more per iteration. Always iterates in double precision.
+ * */
+public final class MultibrotKernel implements FractalKernel {
+
+    public static final int MAX_UNROLLED_EXPONENT = 8;
+
+    private final boolean julia;
+
+    public MultibrotKernel(boolean julia) {
+        this.julia = julia;
+    }
+
+    @Override
+    public int iterate(@NotNull Frame frame, double re, double img) {
+        return julia ?
+                iterate(frame.exponent, re, img, frame.seedRe, frame.seedImg, frame.maxIterations, frame.divergeDistance) :
+                iterate(frame.exponent, frame.seedRe, frame.seedImg, re, img, frame.maxIterations, frame.divergeDistance);
+    }
+
+    @Override
+    public void iterateRow(@NotNull Frame frame, double @NotNull [] re, double img, int @NotNull [] out) {
+        final int d = frame.exponent;
+        final int maxIterations = frame.maxIterations;
+        final double divergeDistance = frame.divergeDistance;
+
+        if (julia) {
+            for (int i = 0; i < re.length; i++) {
+                out[i] = iterate(d, re[i], img, frame.seedRe, frame.seedImg, maxIterations, divergeDistance);
+            }
+        } else {
+            for (int i = 0; i < re.length; i++) {
+                out[i] = iterate(d, frame.seedRe, frame.seedImg, re[i], img, maxIterations, divergeDistance);
+            }
+        }
+    }
+
+    /**
+     * Rounds the pixel to double, the multibrot kernels have no double-double tier
+     * */
+    @Override
+    public int iterateDoubleDouble(@NotNull Frame frame, double reHi, double reLo, double imgHi, double imgLo) {
+        return iterate(frame, reHi + reLo, imgHi + imgLo);
+    }
+
+
+    /**
+     * @return iteration count of Z^d + C, starting from Z0
+     * */
+    public static int iterate(int d, double z0re, double z0img, double cre, double cimg, int maxIterations, double divergeDistance) {
+        final double dsq = divergeDistance * divergeDistance;
+        return switch (d) {
+            case 2 -> iterate2(z0re, z0img, cre, cimg, maxIterations, dsq);
+            case 3 -> iterate3(z0re, z0img, cre, cimg, maxIterations, dsq);
+            case 4 -> iterate4(z0re, z0img, cre, cimg, maxIterations, dsq);
+            case 5 -> iterate5(z0re, z0img, cre, cimg, maxIterations, dsq);
+            case 6 -> iterate6(z0re, z0img, cre, cimg, maxIterations, dsq);
+            case 7 -> iterate7(z0re, z0img, cre, cimg, maxIterations, dsq);
+            case 8 -> iterate8(z0re, z0img, cre, cimg, maxIterations, dsq);
+            default -> iterateGeneric(d, z0re, z0img, cre, cimg, maxIterations, dsq);
+        };
+    }
+
+    private static int iterate2(double z0re, double z0img, double cre, double cimg, int maxIterations, double dsq) {
+        double re = z0re, img = z0img;
+        int itr = 0;
+        while (itr < maxIterations) {
+            final double nre = (re * re - img * img) + cre;
+            final double nimg = (2 * re * img) + cimg;
+
+            final double dre = nre - z0re, dimg = nimg - z0img;
+            if (dre * dre + dimg * dimg >= dsq)
+                break;
+
+            re = nre;
+            img = nimg;
+            itr++;
+        }
+
+        return itr;
+    }
+
+    private static int iterate3(double z0re, double z0img, double cre, double cimg, int maxIterations, double dsq) {
+        double re = z0re, img = z0img;
+        int itr = 0;
+        while (itr < maxIterations) {
+            final double re2 = re * re, img2 = img * img;
+            final double nre = re * (re2 - 3 * img2) + cre;
+            final double nimg = img * (3 * re2 - img2) + cimg;
+
+            final double dre = nre - z0re, dimg = nimg - z0img;
+            if (dre * dre + dimg * dimg >= dsq)
+                break;
+
+            re = nre;
+            img = nimg;
+            itr++;
+        }
+
+        return itr;
+    }
+
+    private static int iterate4(double z0re, double z0img, double cre, double cimg, int maxIterations, double dsq) {
+        double re = z0re, img = z0img;
+        int itr = 0;
+        while (itr < maxIterations) {
+            // Z^2, then squared
+            final double sre = re * re - img * img, simg = 2 * re * img;
+            final double nre = (sre * sre - simg * simg) + cre;
+            final double nimg = (2 * sre * simg) + cimg;
+
+            final double dre = nre - z0re, dimg = nimg - z0img;
+            if (dre * dre + dimg * dimg >= dsq)
+                break;
+
+            re = nre;
+            img = nimg;
+            itr++;
+        }
+
+        return itr;
+    }
+
+    private static int iterate5(double z0re, double z0img, double cre, double cimg, int maxIterations, double dsq) {
+        double re = z0re, img = z0img;
+        int itr = 0;
+        while (itr < maxIterations) {
+            // Z^4 * Z
+            final double sre = re * re - img * img, simg = 2 * re * img;
+            final double qre = sre * sre - simg * simg, qimg = 2 * sre * simg;
+            final double nre = (qre * re - qimg * img) + cre;
+            final double nimg = (qre * img + qimg * re) + cimg;
+
+            final double dre = nre - z0re, dimg = nimg - z0img;
+            if (dre * dre + dimg * dimg >= dsq)
+                break;
+
+            re = nre;
+            img = nimg;
+            itr++;
+        }
+
+        return itr;
+    }
+
+    private static int iterate6(double z0re, double z0img, double cre, double cimg, int maxIterations, double dsq) {
+        double re = z0re, img = z0img;
+        int itr = 0;
+        while (itr < maxIterations) {
+            // Z^3, then squared
+            final double re2 = re * re, img2 = img * img;
+            final double tre = re * (re2 - 3 * img2), timg = img * (3 * re2 - img2);
+            final double nre = (tre * tre - timg * timg) + cre;
+            final double nimg = (2 * tre * timg) + cimg;
+
+            final double dre = nre - z0re, dimg = nimg - z0img;
+            if (dre * dre + dimg * dimg >= dsq)
+                break;
+
+            re = nre;
+            img = nimg;
+            itr++;
+        }
+
+        return itr;
+    }
+
+    private static int iterate7(double z0re, double z0img, double cre, double cimg, int maxIterations, double dsq) {
+        double re = z0re, img = z0img;
+        int itr = 0;
+        while (itr < maxIterations) {
+            // (Z^3)^2 * Z
+            final double re2 = re * re, img2 = img * img;
+            final double tre = re * (re2 - 3 * img2), timg = img * (3 * re2 - img2);
+            final double hre = tre * tre - timg * timg, himg = 2 * tre * timg;
+            final double nre = (hre * re - himg * img) + cre;
+            final double nimg = (hre * img + himg * re) + cimg;
+
+            final double dre = nre - z0re, dimg = nimg - z0img;
+            if (dre * dre + dimg * dimg >= dsq)
+                break;
+
+            re = nre;
+            img = nimg;
+            itr++;
+        }
+
+        return itr;
+    }
+
+    private static int iterate8(double z0re, double z0img, double cre, double cimg, int maxIterations, double dsq) {
+        double re = z0re, img = z0img;
+        int itr = 0;
+        while (itr < maxIterations) {
+            // Three squarings
+            final double sre = re * re - img * img, simg = 2 * re * img;
+            final double qre = sre * sre - simg * simg, qimg = 2 * sre * simg;
+            final double nre = (qre * qre - qimg * qimg) + cre;
+            final double nimg = (2 * qre * qimg) + cimg;
+
+            final double dre = nre - z0re, dimg = nimg - z0img;
+            if (dre * dre + dimg * dimg >= dsq)
+                break;
+
+            re = nre;
+            img = nimg;
+            itr++;
+        }
+
+        return itr;
+    }
+
+    /**
+     * Any exponent d >= 1, Z^d by binary exponentiation: about 2 log2(d) complex products per iteration
+     * */
+    private static int iterateGeneric(int d, double z0re, double z0img, double cre, double cimg, int maxIterations, double dsq) {
+        double re = z0re, img = z0img;
+        int itr = 0;
+        while (itr < maxIterations) {
+            double pre = 1, pimg = 0;           // Z^d
+            double bre = re, bimg = img;        // Z^(2^k)
+            for (int e = d; ; ) {
+                if ((e & 1) != 0) {
+                    final double t = pre * bre - pimg * bimg;
+                    pimg = pre * bimg + pimg * bre;
+                    pre = t;
+                }
+
+                e >>>= 1;
+                if (e == 0)
+                    break;
+
+                final double t = bre * bre - bimg * bimg;
+                bimg = 2 * bre * bimg;
+                bre = t;
+            }
+
+            final double nre = pre + cre;
+            final double nimg = pimg + cimg;
+
+            final double dre = nre - z0re, dimg = nimg - z0img;
+            if (dre * dre + dimg * dimg >= dsq)
+                break;
+
+            re = nre;
+            img = nimg;
+            itr++;
+        }
+
+        return itr;
+    }
+}
@@ -0,0 +1,574 @@
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Perturbation theory engine for deep zooms.
+ * <p>
+ * A single reference orbit Z(n) is computed per frame in arbitrary precision, at the center of the view. Every pixel
+ * is then iterated as a small delta from the reference, entirely in doubles:
+ * <pre>
+ *     dz(n+1) = 2 * Z(n) * dz(n) + dz(n)^2 + dc
+ * </pre>
+ * For the Mandelbrot Set, dc is the pixel offset and dz(0) = 0. For the Julia Set, dc = 0 and dz(0) is the pixel offset.
+ * <p>
+ * The reference orbit is iterated with the allocation free {@link FixedPointComplex}.
+ * <p>
+ * Whenever the full value Z(n) + dz(n) gets smaller than the delta itself (or the reference orbit runs out), the delta is
+ * rebased onto the start of the reference orbit, which avoids the precision loss ("glitches") of the classic approach.
+ * */
+public class PerturbationEngine {
+
+    /**
+     * Extra decimal digits of precision, over the digits needed to resolve the pixel spacing
+     * */
+    public static final int EXTRA_PRECISION_DIGITS = 20;
+    public static final int MIN_PRECISION_DIGITS = 20;
+
+    /**
+     * Precision is rounded up to a multiple of this, so that small zoom steps keep the same reference precision
+     * */
+    public static final int PRECISION_DIGITS_STEP = 10;
+
+    /**
+     * Pixel spacings below 2^this need extended range deltas ({@link FloatExpComplex}), since doubles lose precision
+     * to subnormals, and then underflow altogether past about 1e-308
+     * */
+    public static final int EXTENDED_RANGE_SPACING_EXPONENT = -960;
+
+    /**
+     * Extended range deltas are handed over to the double loop once they reach 2^this, where doubles have
+     * enough headroom for dz^2
+     * */
+    public static final int EXTENDED_HANDOVER_EXPONENT = -500;
+
+    /**
+     * Reference iterations between two checks for cancellation. A deep reference runs for millions of iterations, so
+     * a stale one is given up within a few milliseconds, at a negligible cost per iteration
+     * */
+    public static final int CANCEL_CHECK_INTERVAL = 256;
+
+    /**
+     * @return whether pixels at the given spacing must be iterated with extended range deltas
+     * */
+    public static boolean needsExtendedRange(@NotNull FloatExp pixelSpacing) {
+        return !pixelSpacing.isZero() && pixelSpacing.exponent < EXTENDED_RANGE_SPACING_EXPONENT;
+    }
+
+    @NotNull
+    public static MathContext mathContext(double pixelSpacing) {
+        return mathContext(FloatExp.of(pixelSpacing));
+    }
+
+    @NotNull
+    public static MathContext mathContext(@NotNull FloatExp pixelSpacing) {
+        final int digits = pixelSpacing.signum() > 0? (int) Math.ceil(-pixelSpacing.log10()): 0;
+        final int precision = Math.max(MIN_PRECISION_DIGITS, digits + EXTRA_PRECISION_DIGITS);
+        return new MathContext(((precision + PRECISION_DIGITS_STEP - 1) / PRECISION_DIGITS_STEP) * PRECISION_DIGITS_STEP);
+    }
+
+
+    /**
+     * High precision reference orbit, stored as doubles for the per-pixel delta iteration
+     * */
+    public static class Reference {
+
+        public final boolean julia;
+        public final double[] re;
+        public final double[] img;
+
+        /**
+         * Number of valid orbit points, including Z(0). Less than {@code maxIterations + 1} if the reference escaped
+         * */
+        public final int length;
+
+        /**
+         * Z(0) of the reference orbit
+         * */
+        public final double z0Re, z0Img;
+
+        /**
+         * Inputs this orbit was computed for
+         * */
+        @NotNull
+        public final Key key;
+
+        @Nullable
+        private volatile BlaTable mBlaTable;
+
+        private Reference(double[] re, double[] img, int length, @NotNull Key key) {
+            this.julia = key.julia;
+            this.re = re;
+            this.img = img;
+            this.length = length;
+            z0Re = re[0];
+            z0Img = img[0];
+            this.key = key;
+        }
+
+        /**
+         * @return whether this orbit is the one {@link #computeReference(Key)} would compute for the given inputs
+         * */
+        public boolean matches(@NotNull Key key) {
+            return this.key.equals(key);
+        }
+
+        /**
+         * Whether this orbit can temporarily stand in for the orbit of the given inputs, while that one is being computed.
+         * Pixels are then iterated as deltas from this orbit's reference point, which only requires the same fractal and
+         * seed, enough precision, and a reference point close enough for the deltas to stay small
+         *
+         * @param maxOffset largest allowed distance between the two reference points, along each axis
+         * */
+        public boolean canStandInFor(@NotNull Key key, @NotNull FloatExp maxOffset) {
+            return this.key.canStandInFor(key, maxOffset);
+        }
+
+        /**
+         * @return the BLA table of this orbit for the given largest |dc|, built on first use and cached afterwards
+         * */
+        @NotNull
+        public synchronized BlaTable getBlaTable(double dcMax) {
+            BlaTable table = mBlaTable;
+            if (table == null || table.dcMax != dcMax) {
+                table = BlaTable.build(this, dcMax);
+                mBlaTable = table;
+            }
+
+            return table;
+        }
+    }
+
+    /**
+     * Inputs of a reference orbit
+     * */
+    public static final class Key {
+
+        public final boolean julia;
+
+        /**
+         * Reference point (the view center)
+         * */
+        @NotNull
+        public final BigDecimal refRe, refImg;
+
+        /**
+         * Fractal seed: Z(0) for the Mandelbrot Set, C for the Julia Set
+         * */
+        @NotNull
+        public final Complex seed;
+        public final int maxIterations;
+        public final double divergeDistance;
+        @NotNull
+        public final MathContext mc;
+
+        public Key(boolean julia, @NotNull BigDecimal refRe, @NotNull BigDecimal refImg, @NotNull Complex seed, int maxIterations, double divergeDistance, @NotNull MathContext mc) {
+            this.julia = julia;
+            this.refRe = refRe;
+            this.refImg = refImg;
+            this.seed = seed;
+            this.maxIterations = maxIterations;
+            this.divergeDistance = divergeDistance;
+            this.mc = mc;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Key k))
+                return false;
+
+            return julia == k.julia && maxIterations == k.maxIterations && divergeDistance == k.divergeDistance
+                    && refRe.equals(k.refRe) && refImg.equals(k.refImg) && seed.equals(k.seed) && mc.equals(k.mc);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(julia, refRe, refImg, seed, maxIterations, divergeDistance, mc);
+        }
+
+        /**
+         * @return whether the orbit of these inputs can stand in for the orbit of the given inputs
+         * @see Reference#canStandInFor(Key, FloatExp)
+         * */
+        public boolean canStandInFor(@NotNull Key key, @NotNull FloatExp maxOffset) {
+            if (julia != key.julia || divergeDistance != key.divergeDistance || !seed.equals(key.seed)
+                    || mc.getPrecision() < key.mc.getPrecision())
+                return false;
+
+            return FloatExp.of(refRe.subtract(key.refRe)).abs().compareTo(maxOffset) <= 0
+                    && FloatExp.of(refImg.subtract(key.refImg)).abs().compareTo(maxOffset) <= 0;
+        }
+    }
+
+    /**
+     * Computes the reference orbit in arbitrary precision. Safe to call from any thread
+     * */
+    @NotNull
+    public static Reference computeReference(@NotNull Key key) {
+        return computeReference(key, null);
+    }
+
+    /**
+     * Computes the reference orbit in arbitrary precision, giving up as soon as it is cancelled. Safe to call from any thread
+     *
+     * @param cancelled polled every {@link #CANCEL_CHECK_INTERVAL} iterations, or {@code null} to never give up
+     * @throws CancellationException if cancelled before the orbit is complete
+     * */
+    @NotNull
+    public static Reference computeReference(@NotNull Key key, @Nullable BooleanSupplier cancelled) throws CancellationException {
+        final boolean julia = key.julia;
+        final BigDecimal refRe = key.refRe, refImg = key.refImg;
+        final Complex seed = key.seed;
+        final int maxIterations = key.maxIterations;
+        final double divergeDistance = key.divergeDistance;
+        final double dsq = divergeDistance * divergeDistance;
+
+        final BigDecimal seedRe = new BigDecimal(seed.re);
+        final BigDecimal seedImg = new BigDecimal(seed.img);
+
+        final BigDecimal cRe = julia? seedRe: refRe;
+        final BigDecimal cImg = julia? seedImg: refImg;
+        final int fractionalLimbs = FixedPoint.fractionalLimbsFor(key.mc.getPrecision());
+        final FixedPointComplex z = new FixedPointComplex(fractionalLimbs).set(julia? refRe: seedRe, julia? refImg: seedImg);
+        final FixedPointComplex c = new FixedPointComplex(fractionalLimbs).set(cRe, cImg);
+
+        final double z0Re = z.reDouble();
+        final double z0Img = z.imgDouble();
+
+        final double[] re = new double[maxIterations + 1];
+        final double[] img = new double[maxIterations + 1];
+        re[0] = z0Re;
+        img[0] = z0Img;
+
+        int n = 1;
+        while (n <= maxIterations) {
+            if (cancelled != null && n % CANCEL_CHECK_INTERVAL == 0 && cancelled.getAsBoolean())
+                throw new CancellationException("Reference orbit cancelled at iteration " + n);
+
+            z.squareAdd(c);
+
+            final double dre = z.reDouble();
+            final double dimg = z.imgDouble();
+            re[n] = dre;
+            img[n] = dimg;
+            n++;
+
+            final double re_temp = dre - z0Re;
+            final double img_temp = dimg - z0Img;
+            if ((re_temp * re_temp + img_temp * img_temp) >= dsq)
+                break;      // reference diverges
+        }
+
+        return new Reference(re, img, n, key);
+    }
+
+
+    /**
+     * Iterates a pixel as a delta from the reference orbit.
+     *
+     * @param dRe real part of the pixel offset from the reference point
+     * @param dImg imaginary part of the pixel offset from the reference point
+     * @return the escape-time iteration count, same as {@link Main#iterateMandelbrot(Complex, Complex, int, double)} would
+     * */
+    public static int iterate(@NotNull Reference ref, double dRe, double dImg, int maxIterations, double divergeDistance) {
+        return iterate(ref, null, dRe, dImg, maxIterations, divergeDistance);
+    }
+
+    /**
+     * Iterates a pixel as a delta from the reference orbit, starting from the iteration the series approximation
+     * (if any) skips to.
+     *
+     * @param series series approximation of the frame, or {@code null} to start from iteration 0
+     * @see #iterate(Reference, double, double, int, double)
+     * */
+    public static int iterate(@NotNull Reference ref, @Nullable SeriesApproximation series, double dRe, double dImg, int maxIterations, double divergeDistance) {
+        return iterate(ref, series, null, null, dRe, dImg, maxIterations, divergeDistance);
+    }
+
+    /**
+     * Iterates a pixel as a delta from the reference orbit, starting from the iteration the series approximation
+     * (if any) skips to, and jumping through the reference with the BLA table (if any) wherever the delta is small enough.
+     * <p>
+     * A BLA jump that ends up diverging is discarded, and the same iterations are retried with single steps, so
+     * the escape iteration is exact.
+     *
+     * @param bla BLA table of the reference, or {@code null} to only take single steps
+     * @param steps accumulator for the number of steps (single or BLA jumps) taken, may be null
+     * @see #iterate(Reference, double, double, int, double)
+     * */
+    public static int iterate(@NotNull Reference ref, @Nullable SeriesApproximation series, @Nullable BlaTable bla, @Nullable LongAdder steps,
+                              double dRe, double dImg, int maxIterations, double divergeDistance) {
+        // Mandelbrot: dc = pixel offset, dz(0) = 0  |  Julia: dc = 0, dz(0) = pixel offset
+        final double dcRe = ref.julia? 0: dRe;
+        final double dcImg = ref.julia? 0: dImg;
+        double dzRe = ref.julia? dRe: 0;
+        double dzImg = ref.julia? dImg: 0;
+
+        // Seed of this pixel's orbit, used for the divergence test
+        final double z0Re = ref.julia? ref.z0Re + dRe: ref.z0Re;
+        final double z0Img = ref.julia? ref.z0Img + dImg: ref.z0Img;
+
+        int itr = 0;
+        int m = 0;      // index into the reference orbit
+
+        if (series != null && series.skip > 0) {
+            // Horner evaluation of dz(skip) = sum(a(k) * d^k)
+            final double[] ar = series.coefRe;
+            final double[] ai = series.coefImg;
+
+            double sRe = 0, sImg = 0;
+            for (int k = series.terms; k >= 1; k--) {
+                final double t = (sRe * dRe - sImg * dImg) + ar[k];
+                sImg = (sRe * dImg + sImg * dRe) + ai[k];
+                sRe = t;
+            }
+
+            dzRe = sRe * dRe - sImg * dImg;
+            dzImg = sRe * dImg + sImg * dRe;
+            itr = m = series.skip;
+        }
+
+        return iterateFrom(ref, bla, steps, itr, m, dzRe, dzImg, dcRe, dcImg, z0Re, z0Img, maxIterations, divergeDistance);
+    }
+
+    /**
+     * Iterates a pixel as a delta from the reference orbit, with extended range deltas for pixel offsets too small for
+     * doubles. Jumps through the reference with the BLA table (if any) like {@link #iterate(Reference, SeriesApproximation, BlaTable, LongAdder, double, double, int, double)}.
+     * <p>
+     * The delta only needs the extended range while it is tiny: as soon as it grows into the double range, the
+     * iteration continues in the plain double loop. The pixel offset itself (dc) may still underflow there, but it is
+     * then negligible next to the delta.
+     *
+     * @param d pixel offset from the reference point
+     * @see #iterate(Reference, double, double, int, double)
+     * */
+    public static int iterate(@NotNull Reference ref, @Nullable BlaTable bla, @Nullable LongAdder steps,
+                              @NotNull FloatExpComplex d, int maxIterations, double divergeDistance) {
+        final double dsq = divergeDistance * divergeDistance;
+        final double[] zr = ref.re;
+        final double[] zi = ref.img;
+        final int refLength = ref.length;
+
+        // Mandelbrot: dc = pixel offset, dz(0) = 0  |  Julia: dc = 0, dz(0) = pixel offset
+        final FloatExpComplex dc = new FloatExpComplex();
+        final FloatExpComplex dz = new FloatExpComplex();
+        if (ref.julia) {
+            dz.set(d);
+        } else {
+            dc.set(d);
+        }
+
+        final FloatExpComplex t = new FloatExpComplex(), u = new FloatExpComplex();
+
+        // Seed of this pixel's orbit, used for the divergence test
+        final double z0Re = ref.julia? ref.z0Re + d.reDouble(): ref.z0Re;
+        final double z0Img = ref.julia? ref.z0Img + d.imgDouble(): ref.z0Img;
+
+        int itr = 0;
+        int m = 0;      // index into the reference orbit
+        int stepCount = 0;
+        while (itr < maxIterations) {
+            if (dz.exp >= EXTENDED_HANDOVER_EXPONENT) {
+                if (steps != null) {
+                    steps.add(stepCount);
+                }
+
+                return iterateFrom(ref, bla, steps, itr, m, dz.reDouble(), dz.imgDouble(), dc.reDouble(), dc.imgDouble(), z0Re, z0Img, maxIterations, divergeDistance);
+            }
+
+            stepCount++;
+
+            // BLA jump: dz = A dz + B dc. The delta is tiny here, so only the jump length can fail the radius test
+            if (bla != null && m > 0) {
+                final int mt = m - 1;
+                final int top = blaLevel(bla, mt, itr, dz.normSqDouble(), maxIterations);
+
+                boolean jumped = false;
+                for (int l = top; l >= 1; l--) {
+                    final int j = mt >> l;
+                    final int len = 1 << l;
+
+                    t.set(dc).multiply(bla.bRe[l][j], bla.bImg[l][j]);
+                    t.add(u.set(dz).multiply(bla.aRe[l][j], bla.aImg[l][j]));
+
+                    final double re = zr[m + len] + t.reDouble();
+                    final double img = zi[m + len] + t.imgDouble();
+                    final double re_temp = re - z0Re;
+                    final double img_temp = img - z0Img;
+                    if ((re_temp * re_temp + img_temp * img_temp) >= dsq)
+                        continue;       // escapes somewhere inside the jump, take shorter steps
+
+                    dz.set(t);
+                    m += len;
+                    itr += len;
+
+                    if (m >= refLength - 1 || (re * re + img * img) < dz.normSqDouble()) {
+                        dz.set(re - ref.z0Re, img - ref.z0Img);
+                        m = 0;
+                    }
+
+                    jumped = true;
+                    break;
+                }
+
+                if (jumped)
+                    continue;
+            }
+
+            // dz = (2 * Z + dz) * dz + dc
+            t.set(2 * zr[m], 2 * zi[m]).add(dz);
+            dz.multiply(t).add(dc);
+            m++;
+
+            final double re = zr[m] + dz.reDouble();
+            final double img = zi[m] + dz.imgDouble();
+
+            final double re_temp = re - z0Re;
+            final double img_temp = img - z0Img;
+            if ((re_temp * re_temp + img_temp * img_temp) >= dsq)
+                break;      // diverges
+
+            itr++;
+
+            // Rebase onto the start of the reference orbit, if the full value gets smaller than the delta, or the reference ran out
+            if (m >= refLength - 1 || (re * re + img * img) < dz.normSqDouble()) {
+                dz.set(re - ref.z0Re, img - ref.z0Img);
+                m = 0;
+            }
+        }
+
+        if (steps != null) {
+            steps.add(stepCount);
+        }
+
+        return itr;
+    }
+
+    /**
+     * The double precision delta loop, continuing from the given state
+     *
+     * @param itr iterations done so far
+     * @param m index into the reference orbit
+     * @param z0Re real part of the pixel's orbit seed, for the divergence test
+     * @param z0Img imaginary part of the pixel's orbit seed, for the divergence test
+     * */
+    private static int iterateFrom(@NotNull Reference ref, @Nullable BlaTable bla, @Nullable LongAdder steps, int itr, int m,
+                                   double dzRe, double dzImg, double dcRe, double dcImg, double z0Re, double z0Img,
+                                   int maxIterations, double divergeDistance) {
+        final double dsq = divergeDistance * divergeDistance;
+        final double[] zr = ref.re;
+        final double[] zi = ref.img;
+        final int refLength = ref.length;
+
+        int stepCount = 0;
+        while (itr < maxIterations) {
+            stepCount++;
+
+            // Try the longest valid BLA jump starting at m. Table entries are aligned to iteration 1
+            if (bla != null && m > 0) {
+                final int mt = m - 1;
+                final int top = blaLevel(bla, mt, itr, dzRe * dzRe + dzImg * dzImg, maxIterations);
+
+                boolean jumped = false;
+                for (int l = top; l >= 1; l--) {
+                    final int j = mt >> l;
+                    final int len = 1 << l;
+
+                    // dz = A dz + B dc
+                    final double ar = bla.aRe[l][j], ai = bla.aImg[l][j];
+                    final double br = bla.bRe[l][j], bi = bla.bImg[l][j];
+                    final double jdzRe = (ar * dzRe - ai * dzImg) + (br * dcRe - bi * dcImg);
+                    final double jdzImg = (ar * dzImg + ai * dzRe) + (br * dcImg + bi * dcRe);
+
+                    final double re = zr[m + len] + jdzRe;
+                    final double img = zi[m + len] + jdzImg;
+                    final double re_temp = re - z0Re;
+                    final double img_temp = img - z0Img;
+                    if ((re_temp * re_temp + img_temp * img_temp) >= dsq)
+                        continue;       // escapes somewhere inside the jump, take shorter steps
+
+                    dzRe = jdzRe;
+                    dzImg = jdzImg;
+                    m += len;
+                    itr += len;
+
+                    if (m >= refLength - 1 || (re * re + img * img) < (jdzRe * jdzRe + jdzImg * jdzImg)) {
+                        dzRe = re - ref.z0Re;
+                        dzImg = img - ref.z0Img;
+                        m = 0;
+                    }
+
+                    jumped = true;
+                    break;
+                }
+
+                if (jumped)
+                    continue;
+            }
+
+            final double Zr = zr[m];
+            final double Zi = zi[m];
+
+            // dz = 2 * Z * dz + dz^2 + dc
+            final double ndzRe = 2 * (Zr * dzRe - Zi * dzImg) + (dzRe * dzRe - dzImg * dzImg) + dcRe;
+            final double ndzImg = 2 * (Zr * dzImg + Zi * dzRe) + (2 * dzRe * dzImg) + dcImg;
+            dzRe = ndzRe;
+            dzImg = ndzImg;
+            m++;
+
+            final double re = zr[m] + dzRe;
+            final double img = zi[m] + dzImg;
+
+            final double re_temp = re - z0Re;
+            final double img_temp = img - z0Img;
+            if ((re_temp * re_temp + img_temp * img_temp) >= dsq)
+                break;      // diverges
+
+            itr++;
+
+            // Rebase onto the start of the reference orbit, if the full value gets smaller than the delta, or the reference ran out
+            if (m >= refLength - 1 || (re * re + img * img) < (dzRe * dzRe + dzImg * dzImg)) {
+                dzRe = re - ref.z0Re;
+                dzImg = img - ref.z0Img;
+                m = 0;
+            }
+        }
+
+        if (steps != null) {
+            steps.add(stepCount);
+        }
+
+        return itr;
+    }
+
+
+    /**
+     * @param mt reference index the jump starts from, relative to iteration 1
+     * @param dzMagSq |dz|^2 at the start of the jump
+     * @return the highest BLA level valid for a jump from the given state, 0 if none
+     * */
+    private static int blaLevel(@NotNull BlaTable bla, int mt, int itr, double dzMagSq, int maxIterations) {
+        final int maxLevel = Math.min(mt == 0? Integer.MAX_VALUE: Integer.numberOfTrailingZeros(mt), bla.levels - 1);
+
+        // Radius can only shrink with the level, so walk up while valid
+        int top = 0;
+        while (top < maxLevel) {
+            final int l = top + 1;
+            final int j = mt >> l;
+            if (j >= bla.count[l] || dzMagSq >= bla.radiusSq[l][j] || itr + (1 << l) > maxIterations)
+                break;
+            top = l;
+        }
+
+        return top;
+    }
+
+}
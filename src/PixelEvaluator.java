@@ -0,0 +1,9 @@
+/**
+ * Computes the escape-time iteration count of a single pixel of the current frame
+ * */
+@FunctionalInterface
+public interface PixelEvaluator {
+
+    int iterations(int x, int y);
+
+}
@@ -0,0 +1,47 @@
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Picks the precision tier of a frame, in {@link Main.PrecisionMode#AUTO Auto} precision mode.
+ * <p>
+ * Tiers are tried from the cheapest ({@link Main.PrecisionMode#FLOAT Float}) to the most expensive
+ * ({@link Main.PrecisionMode#PERTURBATION Perturbation}), and the first one that resolves the frame wins. A tier resolves
+ * a frame when the pixel spacing is at least {@link #SPACING_ULPS} units of its resolution at the largest coordinate of
+ * the frame. The margin covers the rounding errors the iteration amplifies. Perturbation resolves any frame.
+ * */
+public class PrecisionManager {
+
+    /**
+     * Minimum pixel spacing, in units of the tier resolution at the largest coordinate
+     * */
+    public static final int SPACING_ULPS = 1024;
+
+    /**
+     * @param pixelSpacing pixel spacing of the frame
+     * @param maxCoord largest absolute coordinate the orbits start from (view corners, seed)
+     * @return whether the given (non-auto) tier resolves every pixel of the frame
+     * */
+    public static boolean resolves(@NotNull Main.PrecisionMode tier, @NotNull FloatExp pixelSpacing, double maxCoord) {
+        if (tier.resolution == 0)
+            return true;
+
+        return pixelSpacing.compareTo(FloatExp.of(Math.max(1, maxCoord) * tier.resolution * SPACING_ULPS)) >= 0;
+    }
+
+    /**
+     * @param floatAllowed whether the float tier can be used, which has no periodicity checking nor interior detection
+     * @return the cheapest tier that resolves the frame
+     * @see #resolves(Main.PrecisionMode, FloatExp, double)
+     * */
+    @NotNull
+    public static Main.PrecisionMode select(@NotNull FloatExp pixelSpacing, double maxCoord, boolean floatAllowed) {
+        for (Main.PrecisionMode tier: Main.PrecisionMode.values()) {
+            if (tier == Main.PrecisionMode.AUTO || (tier == Main.PrecisionMode.FLOAT && !floatAllowed))
+                continue;
+
+            if (resolves(tier, pixelSpacing, maxCoord))
+                return tier;
+        }
+
+        return Main.PrecisionMode.PERTURBATION;
+    }
+}
@@ -44,9 +44,22 @@ public class R {
     public static final String SHELL_ROOT = shellPath(null);
     public static final String SHELL_HELP = shellPath("help");
     public static final String SHELL_SEED = shellPath("seed");
+    public static final String SHELL_FORMULA = shellPath("formula");
     public static final String SHELL_MAX_ITERATIONS = shellPath("max-itr");
+    public static final String SHELL_EXPONENT = shellPath("exponent");
     public static final String SHELL_DIVERGENCE_DISTANCE = shellPath("div-dist");
     public static final String SHELL_THREADS = shellPath("thread");
+    public static final String SHELL_WORKERS = shellPath("workers");
+    public static final String SHELL_TILES = shellPath("tiles");
+    public static final String SHELL_PERIODICITY = shellPath("period");
+    public static final String SHELL_RENDER_MODE = shellPath("render");
+    public static final String SHELL_PRECISION_MODE = shellPath("precision");
+    public static final String SHELL_SERIES_APPROXIMATION = shellPath("series");
+    public static final String SHELL_BLA = shellPath("bla");
+    public static final String SHELL_SIMD = shellPath("simd");
+    public static final String SHELL_SYMMETRY = shellPath("symmetry");
+    public static final String SHELL_DISTANCE_ESTIMATION = shellPath("de");
+    public static final String SHELL_INTERIOR_DETECTION = shellPath("interior");
 
 //    public static final String SHELL_SCRAMBLE = shellPath("scramble");
 //    public static final String SHELL_SOLVER = shellPath("solve");
@@ -65,11 +78,13 @@ public class R {
 
     public static final String DES_CONTROLS =
             """
-            -> F: Change Fractal [Mandelbrot Set | Julia Set]
+            -> F: Change Fractal [Mandelbrot Set | Julia Set | Multibrot Set | Multibrot Julia Set | Custom Formula]
             -> S: Change Seed Animation Mode [Fixed | Periodic | Mouse]
             -> R: Reset Seed
             -> C: Change Color Scheme [Light | Dark | Hue]
             -> H: Toggle HUD (Overlay text)
+            -> M: Change Render Mode [Per Pixel | Subdivision]
+            -> P: Change Precision Mode [Auto | Float | Double | Double-Double | Perturbation]
             -> SPACE: Play/Pause Seed Animation
             -> Ctrl-S: Screenshot
             
@@ -87,15 +102,28 @@ public class R {
             """
             -> help [controls | commands | all] : Usage information
             
-            -> fractal : switch to next fractal [Mandelbrot Set | Julia Set]
+            -> fractal : switch to next fractal [Mandelbrot Set | Julia Set | Multibrot Set | Multibrot Julia Set | Custom Formula]
+            -> formula <expression> : Compile an iteration formula in z and c, and switch to it. Example: formula fold(z)^2 + c
             -> color : next color scheme [Light | Dark | Hue]
             -> anim : next seed animation mode [Fixed | Periodic | Mouse]
+            -> render [next | pixel | subdivision] : Set the render mode
+            -> precision [next | auto | float | double | dd | perturbation] : Set the precision mode (auto picks the cheapest that resolves the view)
+            -> series [on | off | toggle] : Series approximation (skips early iterations in perturbation mode)
+            -> bla [on | off | toggle] : Bilinear approximation (jumps many iterations at once in perturbation mode)
+            -> simd [on | off | toggle] : SIMD kernel (vectorized rows, needs --add-modules jdk.incubator.vector)
+            -> symmetry [on | off | toggle] : Mirror rows across the real axis instead of computing them (real seeds)
+            -> de [on | off | toggle] : Distance estimation, off by default (subdivision only fills exterior rectangles estimated free of the set)
+            -> interior [on | off | toggle] : Interior detection, off by default (proves pixels interior early through the attracting cycle of C, or of the Julia seed)
             -> play/pause : Play or Pause seed animation
             
             -> seed <complex_number> : Set the fractal seed. Example: seed -0.8 + 0.156i
             -> itr <max_iterations> : Set maximum iterations. Example: itr 73
             -> divdist <divergence_distance> : Set divergence distance. Example: divdist 24.82
+            -> exponent <d> : Set the exponent of the Multibrot Sets Z^d + C, in range [2, 64]. Example: exponent 4
             -> threads <count> : Set the number of worker threads
+            -> workers : Per-worker utilization of the last frame rendered in tiles
+            -> tiles [auto | <tiles_per_worker>] : Tile size of the per-pixel render mode, auto-tuned by default. Example: tiles 16
+            -> period [on | off | toggle] : Periodicity checking (early exit for orbits that look cyclic, counts may differ near the boundary)
             
             -> reset [view | seed | all] : Reset scope
             -> toggle hud : toggle HUD
@@ -0,0 +1,202 @@
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Series approximation for the perturbation engine.
+ * <p>
+ * For pixels close to the reference point, the delta orbit is well approximated by a truncated polynomial in the
+ * pixel offset d (d = dc for the Mandelbrot Set, d = dz(0) for the Julia Set):
+ * <pre>
+ *     dz(n) = a1(n) * d + a2(n) * d^2 + ... + aK(n) * d^K
+ * </pre>
+ * The coefficients only depend on the reference orbit, so they are computed once per frame. Every pixel then starts
+ * at iteration {@link #skip} directly, instead of iteration 0.
+ * <p>
+ * The approximation is used as long as the magnitude of the last term (an estimate of the truncation error) stays
+ * below {@link #TOLERANCE} times the first term, for the largest offset in the frame. The chosen skip is then
+ * validated against exact perturbation at probe points on the corners and edges of the frame, and reduced until
+ * the probes agree.
+ * */
+public class SeriesApproximation {
+
+    public static final int DEFAULT_TERMS = 8;
+
+    /**
+     * Maximum relative error of the series, compared to the exact delta
+     * */
+    public static final double TOLERANCE = 1e-9;
+
+    private static final int MIN_SKIP = 8;
+
+    /**
+     * Number of iterations every pixel can skip
+     * */
+    public final int skip;
+    public final int terms;
+
+    /**
+     * Coefficients at iteration {@link #skip}, indexed 1 to {@link #terms}
+     * */
+    public final double[] coefRe;
+    public final double[] coefImg;
+
+    private SeriesApproximation(int skip, int terms, double[] coefRe, double[] coefImg) {
+        this.skip = skip;
+        this.terms = terms;
+        this.coefRe = coefRe;
+        this.coefImg = coefImg;
+    }
+
+    /**
+     * Computes the series approximation for the given reference orbit
+     *
+     * @param maxRe maximum absolute real offset of a pixel from the reference point
+     * @param maxImg maximum absolute imaginary offset of a pixel from the reference point
+     * */
+    @NotNull
+    public static SeriesApproximation compute(@NotNull PerturbationEngine.Reference ref, double maxRe, double maxImg, int terms, int maxIterations, double divergeDistance) {
+        final double logRadius = Math.log(Math.hypot(maxRe, maxImg));
+        final double logTolerance = Math.log(TOLERANCE);
+
+        // Must leave at least one reference point to continue the delta iteration from
+        final int limit = Math.min(maxIterations, ref.length - 2);
+
+        final double[] ar = new double[terms + 1];
+        final double[] ai = new double[terms + 1];
+        initCoefficients(ref, ar, ai);
+
+        final double[] nr = new double[terms + 1];
+        final double[] ni = new double[terms + 1];
+
+        int skip = 0;
+        while (skip < limit) {
+            step(ref, skip, terms, ar, ai, nr, ni);
+
+            // Truncation error estimate: |aK| r^K <= tolerance * |a1| r
+            final double logLast = Math.log(Math.hypot(nr[terms], ni[terms])) + terms * logRadius;
+            final double logFirst = Math.log(Math.hypot(nr[1], ni[1])) + logRadius;
+            if (!Double.isFinite(logFirst) || Double.isNaN(logLast) || logLast == Double.POSITIVE_INFINITY || logLast > logTolerance + logFirst)
+                break;
+
+            System.arraycopy(nr, 0, ar, 0, terms + 1);
+            System.arraycopy(ni, 0, ai, 0, terms + 1);
+            skip++;
+        }
+
+        // Validate against exact perturbation at the probe points
+        while (skip >= MIN_SKIP && !probesAgree(ref, skip, terms, maxRe, maxImg, divergeDistance)) {
+            skip = skip * 3 / 4;
+        }
+
+        if (skip < MIN_SKIP) {
+            return new SeriesApproximation(0, terms, new double[terms + 1], new double[terms + 1]);
+        }
+
+        final double[] cr = new double[terms + 1];
+        final double[] ci = new double[terms + 1];
+        coefficientsAt(ref, skip, terms, cr, ci);
+        return new SeriesApproximation(skip, terms, cr, ci);
+    }
+
+    private static void initCoefficients(@NotNull PerturbationEngine.Reference ref, double[] ar, double[] ai) {
+        // Julia: dz(0) = d -> a1(0) = 1  |  Mandelbrot: dz(0) = 0
+        ar[1] = ref.julia? 1: 0;
+    }
+
+    /**
+     * One iteration of the coefficient recurrence, derived from dz(n+1) = 2 Z(n) dz(n) + dz(n)^2 + dc:
+     * <pre>
+     *     ak(n+1) = 2 Z(n) ak(n) + sum(ai(n) aj(n), i + j = k) [+ 1 if k = 1 for the Mandelbrot Set]
+     * </pre>
+     * */
+    private static void step(@NotNull PerturbationEngine.Reference ref, int n, int terms, double[] ar, double[] ai, double[] nr, double[] ni) {
+        final double Zr = ref.re[n];
+        final double Zi = ref.img[n];
+
+        for (int k = 1; k <= terms; k++) {
+            double re = 2 * (Zr * ar[k] - Zi * ai[k]);
+            double img = 2 * (Zr * ai[k] + Zi * ar[k]);
+
+            for (int i = 1; i < k; i++) {
+                final int j = k - i;
+                re += ar[i] * ar[j] - ai[i] * ai[j];
+                img += ar[i] * ai[j] + ai[i] * ar[j];
+            }
+
+            nr[k] = re;
+            ni[k] = img;
+        }
+
+        if (!ref.julia) {
+            nr[1] += 1;     // dc
+        }
+    }
+
+    private static void coefficientsAt(@NotNull PerturbationEngine.Reference ref, int n, int terms, double[] ar, double[] ai) {
+        initCoefficients(ref, ar, ai);
+
+        final double[] nr = new double[terms + 1];
+        final double[] ni = new double[terms + 1];
+        for (int i = 0; i < n; i++) {
+            step(ref, i, terms, ar, ai, nr, ni);
+            System.arraycopy(nr, 0, ar, 0, terms + 1);
+            System.arraycopy(ni, 0, ai, 0, terms + 1);
+        }
+    }
+
+    private static boolean probesAgree(@NotNull PerturbationEngine.Reference ref, int skip, int terms, double maxRe, double maxImg, double divergeDistance) {
+        final double dsq = divergeDistance * divergeDistance;
+
+        final double[] ar = new double[terms + 1];
+        final double[] ai = new double[terms + 1];
+        coefficientsAt(ref, skip, terms, ar, ai);
+
+        for (int px = -1; px <= 1; px++) {
+            for (int py = -1; py <= 1; py++) {
+                if (px == 0 && py == 0)
+                    continue;
+
+                final double dRe = px * maxRe;
+                final double dImg = py * maxImg;
+
+                // Exact delta, without rebasing. Probes must not diverge before the skip
+                final double z0Re = ref.julia? ref.z0Re + dRe: ref.z0Re;
+                final double z0Img = ref.julia? ref.z0Img + dImg: ref.z0Img;
+                final double dcRe = ref.julia? 0: dRe;
+                final double dcImg = ref.julia? 0: dImg;
+                double dzRe = ref.julia? dRe: 0;
+                double dzImg = ref.julia? dImg: 0;
+                for (int n = 0; n < skip; n++) {
+                    final double Zr = ref.re[n];
+                    final double Zi = ref.img[n];
+                    final double t = 2 * (Zr * dzRe - Zi * dzImg) + (dzRe * dzRe - dzImg * dzImg) + dcRe;
+                    dzImg = 2 * (Zr * dzImg + Zi * dzRe) + (2 * dzRe * dzImg) + dcImg;
+                    dzRe = t;
+
+                    final double re_temp = ref.re[n + 1] + dzRe - z0Re;
+                    final double img_temp = ref.img[n + 1] + dzImg - z0Img;
+                    if ((re_temp * re_temp + img_temp * img_temp) >= dsq)
+                        return false;
+                }
+
+                // Series
+                double sRe = 0, sImg = 0;
+                for (int k = terms; k >= 1; k--) {
+                    final double t = (sRe * dRe - sImg * dImg) + ar[k];
+                    sImg = (sRe * dImg + sImg * dRe) + ai[k];
+                    sRe = t;
+                }
+
+                final double seriesRe = sRe * dRe - sImg * dImg;
+                final double seriesImg = sRe * dImg + sImg * dRe;
+
+                final double err = Math.hypot(seriesRe - dzRe, seriesImg - dzImg);
+                final double mag = Math.hypot(dzRe, dzImg);
+                if (!(err <= TOLERANCE * mag))
+                    return false;
+            }
+        }
+
+        return true;
+    }
+
+}
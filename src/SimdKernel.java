@@ -0,0 +1,137 @@
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Escape-time kernels on the (incubating) Java Vector API: a lane-width batch of pixels is iterated together, with a
+ * mask of the lanes still iterating. The batch goes on until every lane has escaped or hit the max iterations.
+ * <p>
+ * The arithmetic is the same, operation by operation, as {@link Main#iterateMandelbrot(Complex, Complex, int, double)}
+ * and {@link Main#iterateMandelbrotFloat(float, float, float, float, int, float)}, so iteration counts are identical.
+ * <p>
+ * Needs {@code --add-modules jdk.incubator.vector} at compile and run time. Only touch this class after checking
+ * {@link Main#VECTOR_API_AVAILABLE}, since loading it fails without the module.
+ * */
+public class SimdKernel {
+
+    private static final VectorSpecies<Double> DOUBLE_SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Float> FLOAT_SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    public static int doubleLanes() {
+        return DOUBLE_SPECIES.length();
+    }
+
+    public static int floatLanes() {
+        return FLOAT_SPECIES.length();
+    }
+
+    /**
+     * Iterates {@code count} pixels: Z(n+1) = Z(n)^2 + C, with per-pixel Z(0) and C
+     *
+     * @param out escape-time iteration counts
+     * */
+    public static void iterateMandelbrot(double[] z0Re, double[] z0Img, double[] cRe, double[] cImg, int[] out, int count,
+                                         int maxIterations, double divergeDistance) {
+        final VectorSpecies<Double> species = DOUBLE_SPECIES;
+        final int lanes = species.length();
+        final double dsq = divergeDistance * divergeDistance;
+        final double[] itrLanes = new double[lanes];
+
+        final int bound = species.loopBound(count);
+        int i = 0;
+        for (; i < bound; i += lanes) {
+            final DoubleVector z0r = DoubleVector.fromArray(species, z0Re, i);
+            final DoubleVector z0i = DoubleVector.fromArray(species, z0Img, i);
+            final DoubleVector cr = DoubleVector.fromArray(species, cRe, i);
+            final DoubleVector ci = DoubleVector.fromArray(species, cImg, i);
+
+            DoubleVector re = z0r;
+            DoubleVector img = z0i;
+            DoubleVector itr = DoubleVector.zero(species);
+            VectorMask<Double> active = species.maskAll(true);
+
+            for (int n = 0; n < maxIterations; n++) {
+                final DoubleVector nre = re.mul(re).sub(img.mul(img)).add(cr);
+                final DoubleVector nimg = re.mul(2).mul(img).add(ci);
+
+                // If distance of new point from the seed is greater than divergenceDistance, the lane is done
+                final DoubleVector reTemp = nre.sub(z0r);
+                final DoubleVector imgTemp = nimg.sub(z0i);
+                final VectorMask<Double> diverged = reTemp.mul(reTemp).add(imgTemp.mul(imgTemp)).compare(VectorOperators.GE, dsq);
+
+                active = active.andNot(diverged);
+                if (!active.anyTrue())
+                    break;
+
+                re = re.blend(nre, active);
+                img = img.blend(nimg, active);
+                itr = itr.add(1, active);
+            }
+
+            itr.intoArray(itrLanes, 0);
+            for (int l = 0; l < lanes; l++) {
+                out[i + l] = (int) itrLanes[l];
+            }
+        }
+
+        // Scalar tail
+        for (; i < count; i++) {
+            out[i] = Main.iterateMandelbrot(new Complex(z0Re[i], z0Img[i]), new Complex(cRe[i], cImg[i]), maxIterations, divergeDistance);
+        }
+    }
+
+    /**
+     * Single precision variant of {@link #iterateMandelbrot(double[], double[], double[], double[], int[], int, int, double)},
+     * twice the lanes
+     * */
+    public static void iterateMandelbrotFloat(float[] z0Re, float[] z0Img, float[] cRe, float[] cImg, int[] out, int count,
+                                              int maxIterations, float divergeDistance) {
+        final VectorSpecies<Float> species = FLOAT_SPECIES;
+        final int lanes = species.length();
+        final float dsq = divergeDistance * divergeDistance;
+        final float[] itrLanes = new float[lanes];
+
+        final int bound = species.loopBound(count);
+        int i = 0;
+        for (; i < bound; i += lanes) {
+            final FloatVector z0r = FloatVector.fromArray(species, z0Re, i);
+            final FloatVector z0i = FloatVector.fromArray(species, z0Img, i);
+            final FloatVector cr = FloatVector.fromArray(species, cRe, i);
+            final FloatVector ci = FloatVector.fromArray(species, cImg, i);
+
+            FloatVector re = z0r;
+            FloatVector img = z0i;
+            FloatVector itr = FloatVector.zero(species);        // exact up to 2^24 iterations
+            VectorMask<Float> active = species.maskAll(true);
+
+            for (int n = 0; n < maxIterations; n++) {
+                final FloatVector nre = re.mul(re).sub(img.mul(img)).add(cr);
+                final FloatVector nimg = re.mul(2).mul(img).add(ci);
+
+                final FloatVector reTemp = nre.sub(z0r);
+                final FloatVector imgTemp = nimg.sub(z0i);
+                final VectorMask<Float> diverged = reTemp.mul(reTemp).add(imgTemp.mul(imgTemp)).compare(VectorOperators.GE, dsq);
+
+                active = active.andNot(diverged);
+                if (!active.anyTrue())
+                    break;
+
+                re = re.blend(nre, active);
+                img = img.blend(nimg, active);
+                itr = itr.add(1, active);
+            }
+
+            itr.intoArray(itrLanes, 0);
+            for (int l = 0; l < lanes; l++) {
+                out[i + l] = (int) itrLanes[l];
+            }
+        }
+
+        // Scalar tail
+        for (; i < count; i++) {
+            out[i] = Main.iterateMandelbrotFloat(z0Re[i], z0Img[i], cRe[i], cImg[i], maxIterations, divergeDistance);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mariani-Silver rectangle subdivision renderer.
+ * <p>
+ * Only the borders of rectangles are evaluated. If the whole border of a rectangle has a single iteration count,
+ * the rectangle is flood-filled with that count. Otherwise, it is split in two halves along its longer side
+ * (evaluating only the dividing line), and both halves are processed in parallel.
+ * <p>
+ * Relies on the fact that the Mandelbrot and connected Julia sets (and the escape-time bands around them) have
+ * no holes, so a region bounded by a uniform border is uniform as well.
+ * <p>
+ * That fails when a tiny piece of the set (a mini Mandelbrot or a filament) sits inside the rectangle, out of reach of
+ * the border pixels. With a {@link DistanceEstimator}, exterior rectangles are only filled when the distance estimate
+ * at their center indicates that no point of the set lies inside them. The escape-time bands outside the set are
+ * nested around it, so a uniform border around a set-free rectangle implies a uniform rectangle. Interior rectangles
+ * (uniform border at the interior count) are filled as before.
+ * <p>
+ * The estimate is a heuristic, not a proof: the bound is evaluated in floating point, with a safety factor rather than
+ * rigorous error bounds. It is also a guard, not a speedup: it never fills a rectangle that the border check alone
+ * would not, it only refuses some of those fills. Each exterior fill costs one more orbit (at the center), and each
+ * refused fill is subdivided further.
+ * */
+public class SubdivisionRenderer {
+
+    /**
+     * Rectangles with width or height less than or equal to this are evaluated pixel by pixel
+     * */
+    public static final int MIN_RECT_SIZE = 6;
+
+    /**
+     * Renders the iteration counts of the full frame into the given buffer
+     *
+     * @param buffer iteration buffer of size {@code width * height}, in row-major order
+     * */
+    public static void render(@NotNull ForkJoinPool pool, @NotNull PixelEvaluator evaluator, int @NotNull [] buffer, int width, int height) {
+        render(pool, evaluator, null, 0, buffer, width, height);
+    }
+
+    /**
+     * Same as {@link #render(ForkJoinPool, PixelEvaluator, int[], int, int)}, with exterior fills checked by distance estimation
+     *
+     * @param estimator exterior distance estimator, or {@code null} to fill every uniform rectangle
+     * @param interiorCount iteration count of pixels inside the set
+     * @return number of uniform rectangles the estimator refused to fill
+     * */
+    public static long render(@NotNull ForkJoinPool pool, @NotNull PixelEvaluator evaluator, @Nullable DistanceEstimator estimator,
+                              int interiorCount, int @NotNull [] buffer, int width, int height) {
+        if (width <= 0 || height <= 0)
+            return 0;
+
+        final LongAdder refused = new LongAdder();
+        final RectTask root = new RectTask(evaluator, estimator, interiorCount, refused, buffer, width, 0, 0, width - 1, height - 1);
+        root.computeBorder();
+        pool.invoke(root);
+        return refused.sum();
+    }
+
+
+    private static class RectTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 6304958172639402815L;
+
+        @NotNull
+        private final PixelEvaluator evaluator;
+        @Nullable
+        private final DistanceEstimator estimator;
+        private final int interiorCount;
+        @NotNull
+        private final LongAdder refused;
+        private final int @NotNull [] buffer;
+        private final int stride;
+
+        // Inclusive bounds
+        private final int x0, y0, x1, y1;
+
+        private RectTask(@NotNull PixelEvaluator evaluator, @Nullable DistanceEstimator estimator, int interiorCount, @NotNull LongAdder refused,
+                         int @NotNull [] buffer, int stride, int x0, int y0, int x1, int y1) {
+            this.evaluator = evaluator;
+            this.estimator = estimator;
+            this.interiorCount = interiorCount;
+            this.refused = refused;
+            this.buffer = buffer;
+            this.stride = stride;
+            this.x0 = x0;
+            this.y0 = y0;
+            this.x1 = x1;
+            this.y1 = y1;
+        }
+
+        private void eval(int x, int y) {
+            buffer[x + y * stride] = evaluator.iterations(x, y);
+        }
+
+        private void computeBorder() {
+            for (int x = x0; x <= x1; x++) {
+                eval(x, y0);
+                if (y1 != y0) {
+                    eval(x, y1);
+                }
+            }
+
+            for (int y = y0 + 1; y < y1; y++) {
+                eval(x0, y);
+                if (x1 != x0) {
+                    eval(x1, y);
+                }
+            }
+        }
+
+        private boolean isBorderUniform() {
+            final int value = buffer[x0 + y0 * stride];
+
+            for (int x = x0; x <= x1; x++) {
+                if (buffer[x + y0 * stride] != value || buffer[x + y1 * stride] != value)
+                    return false;
+            }
+
+            for (int y = y0 + 1; y < y1; y++) {
+                if (buffer[x0 + y * stride] != value || buffer[x1 + y * stride] != value)
+                    return false;
+            }
+
+            return true;
+        }
+
+        /**
+         * @return whether a rectangle with a uniform border at the given count can be filled
+         * */
+        private boolean canFill(int value) {
+            if (estimator == null || value == interiorCount)
+                return true;
+
+            // The set-free disk around the center must cover the whole rectangle
+            final int cx = (x0 + x1) >>> 1;
+            final int cy = (y0 + y1) >>> 1;
+            final double reach = Math.hypot(Math.max(cx - x0, x1 - cx), Math.max(cy - y0, y1 - cy));
+            if (estimator.exteriorDistance(cx, cy) > reach)
+                return true;
+
+            refused.increment();
+            return false;
+        }
+
+        @Override
+        protected void compute() {
+            // Nothing inside the border
+            if (x1 - x0 < 2 || y1 - y0 < 2)
+                return;
+
+            if (isBorderUniform() && canFill(buffer[x0 + y0 * stride])) {
+                final int value = buffer[x0 + y0 * stride];
+                for (int y = y0 + 1; y < y1; y++) {
+                    final int offset = y * stride;
+                    for (int x = x0 + 1; x < x1; x++) {
+                        buffer[x + offset] = value;
+                    }
+                }
+
+                return;
+            }
+
+            final int w = x1 - x0 + 1;
+            final int h = y1 - y0 + 1;
+            if (w <= MIN_RECT_SIZE || h <= MIN_RECT_SIZE) {
+                for (int y = y0 + 1; y < y1; y++) {
+                    for (int x = x0 + 1; x < x1; x++) {
+                        eval(x, y);
+                    }
+                }
+
+                return;
+            }
+
+            // Split along the longer side, evaluating only the dividing line
+            final RectTask a, b;
+            if (w >= h) {
+                final int mid = (x0 + x1) >>> 1;
+                for (int y = y0 + 1; y < y1; y++) {
+                    eval(mid, y);
+                }
+
+                a = new RectTask(evaluator, estimator, interiorCount, refused, buffer, stride, x0, y0, mid, y1);
+                b = new RectTask(evaluator, estimator, interiorCount, refused, buffer, stride, mid, y0, x1, y1);
+            } else {
+                final int mid = (y0 + y1) >>> 1;
+                for (int x = x0 + 1; x < x1; x++) {
+                    eval(x, mid);
+                }
+
+                a = new RectTask(evaluator, estimator, interiorCount, refused, buffer, stride, x0, y0, x1, mid);
+                b = new RectTask(evaluator, estimator, interiorCount, refused, buffer, stride, x0, mid, x1, y1);
+            }
+
+            invokeAll(a, b);
+        }
+    }
+
+}
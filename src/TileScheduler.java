@@ -0,0 +1,324 @@
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Work-stealing tile scheduler.
+ * <p>
+ * The frame is cut into many small tiles, far more than there are workers. The range of tiles is split in halves
+ * recursively on a {@link ForkJoinPool}: each worker runs its own half depth-first, while idle workers steal the largest
+ * pending halves from busy ones. Expensive tiles (the set interior) end up shared among all workers, instead of
+ * stalling the single worker that owns a fixed strip of the frame.
+ * <p>
+ * Leaf tasks do not own a tile: whichever leaf runs next claims the next tile of a given order. With tiles sorted by
+ * predicted cost, the most expensive tiles are thus started first (longest job first), so that no long tile is left
+ * to start near the end of the frame, while the splitting still spreads the leaves across workers.
+ * */
+public final class TileScheduler {
+
+    /**
+     * Renders a single tile
+     * */
+    @FunctionalInterface
+    public interface TileRenderer {
+
+        /**
+         * @param tile index of the tile, in range [0, tileCount). Tiles run concurrently on different threads, per-worker
+         *             state should be thread-local
+         * */
+        void render(int tile);
+    }
+
+    /**
+     * Busy time of every worker over a single run
+     * */
+    public static final class Stats {
+
+        private final long[] busyNanos;
+        private final long[] firstStartNanos;   // start of the first tile of every worker, from the start of the run
+        private final long[] lastEndNanos;      // end of the last tile of every worker, from the start of the run
+        private final int[] tiles;
+        private final long wallNanos;
+
+        private Stats(int workers, long wallNanos) {
+            busyNanos = new long[workers];
+            firstStartNanos = new long[workers];
+            lastEndNanos = new long[workers];
+            tiles = new int[workers];
+            this.wallNanos = wallNanos;
+        }
+
+        /**
+         * @return number of worker slots: the workers of the pool (at least its parallelism, idle ones included), plus
+         * one last slot for the calling thread, which may run tiles itself while it waits
+         * */
+        public int workers() {
+            return busyNanos.length;
+        }
+
+        public long wallNanos() {
+            return wallNanos;
+        }
+
+        public int tiles(int worker) {
+            return tiles[worker];
+        }
+
+        public int totalTiles() {
+            int sum = 0;
+            for (int t: tiles) {
+                sum += t;
+            }
+
+            return sum;
+        }
+
+        /**
+         * @return fraction of the run that the given worker spent rendering tiles
+         * */
+        public double utilization(int worker) {
+            return wallNanos > 0? (double) busyNanos[worker] / wallNanos: 0;
+        }
+
+        /**
+         * @return mean utilization of the pool workers, the calling thread left out
+         * */
+        public double meanUtilization() {
+            final int n = workers() - 1;
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += utilization(i);
+            }
+
+            return n > 0? sum / n: 0;
+        }
+
+        /**
+         * @return lowest utilization among the pool workers, the calling thread left out
+         * */
+        public double minUtilization() {
+            final int n = workers() - 1;
+            double min = n > 0? 1: 0;
+            for (int i = 0; i < n; i++) {
+                min = Math.min(min, utilization(i));
+            }
+
+            return min;
+        }
+
+        /**
+         * @return fraction of the time of the pool workers lost between their first and last tiles: task splitting,
+         * claiming and stealing. Grows with the number of tiles. Waking the workers up is left out, as it does not
+         * depend on the tile size
+         * */
+        public double overheadFraction() {
+            final int n = workers() - 1;
+            if (n <= 0 || wallNanos <= 0)
+                return 0;
+
+            long lost = 0;
+            for (int i = 0; i < n; i++) {
+                if (tiles[i] > 0) {
+                    lost += lastEndNanos[i] - firstStartNanos[i] - busyNanos[i];
+                }
+            }
+
+            return (double) lost / ((double) n * wallNanos);
+        }
+
+        /**
+         * @return fraction of the time of the pool workers spent idle after their last tile, waiting for the others
+         * to finish. Grows with the size of tiles
+         * */
+        public double imbalanceFraction() {
+            final int n = workers() - 1;
+            if (n <= 0 || wallNanos <= 0)
+                return 0;
+
+            long idle = 0;
+            for (int i = 0; i < n; i++) {
+                idle += tiles[i] > 0? wallNanos - lastEndNanos[i]: wallNanos;
+            }
+
+            return (double) idle / ((double) n * wallNanos);
+        }
+    }
+
+
+    /**
+     * Renders tiles [0, tileCount) in order on the given pool, and blocks until all of them are done
+     *
+     * @return busy time of every worker
+     * */
+    @NotNull
+    public static Stats run(@NotNull ForkJoinPool pool, int tileCount, @NotNull TileRenderer renderer) {
+        return run(pool, tileCount, null, renderer);
+    }
+
+    /**
+     * Renders tiles [0, tileCount) on the given pool, started in the given order, and blocks until all of them are done
+     *
+     * @param order tiles in the order they should be started, or {@code null} for [0, tileCount) in order
+     * @return busy time of every worker
+     * */
+    @NotNull
+    public static Stats run(@NotNull ForkJoinPool pool, int tileCount, int @Nullable [] order, @NotNull TileRenderer renderer) {
+        final Run run = new Run(renderer, order, Thread.currentThread(), System.nanoTime());
+        if (tileCount > 0) {
+            pool.invoke(new RangeTask(run, 0, tileCount));
+        }
+
+        final long wall = System.nanoTime() - run.startNanos;
+
+        // Pool threads in the order they joined the run, the calling thread last
+        final Worker caller = run.workers.get(run.caller);
+        final int poolWorkers = run.workers.size() - (caller != null? 1: 0);
+        final Stats stats = new Stats(Math.max(pool.getParallelism(), poolWorkers) + 1, wall);
+
+        final Worker[] sorted = run.workers.values().stream()
+                .filter(w -> w != caller)
+                .sorted((a, b) -> Integer.compare(a.order, b.order))
+                .toArray(Worker[]::new);
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i].copyTo(stats, i);
+        }
+
+        if (caller != null) {
+            caller.copyTo(stats, stats.workers() - 1);
+        }
+
+        return stats;
+    }
+
+    /**
+     * Cuts a run of items into tiles of consecutive items, of roughly equal predicted cost. Tiles are closed once
+     * their cost reaches the target, or when they hold {@code maxItems} items, so cheap regions end up in a few large
+     * tiles, and expensive ones in many small tiles
+     *
+     * @param cost predicted cost of every item
+     * @return start index of every tile, followed by {@code cost.length}
+     * */
+    public static int @NotNull [] partition(long @NotNull [] cost, long targetCost, int maxItems) {
+        final int[] bounds = new int[cost.length + 1];
+        int tiles = 0;
+
+        long acc = 0;
+        int start = 0;
+        for (int i = 0; i < cost.length; i++) {
+            acc += cost[i];
+            if (acc >= targetCost || i + 1 - start >= maxItems) {
+                bounds[tiles++] = start;
+                start = i + 1;
+                acc = 0;
+            }
+        }
+
+        if (start < cost.length) {
+            bounds[tiles++] = start;
+        }
+
+        bounds[tiles++] = cost.length;
+        return Arrays.copyOf(bounds, tiles);
+    }
+
+    /**
+     * @return indices of the given tiles, most expensive first
+     * */
+    public static int @NotNull [] longestFirst(long @NotNull [] tileCost) {
+        return IntStream.range(0, tileCost.length)
+                .boxed()
+                .sorted((a, b) -> Long.compare(tileCost[b], tileCost[a]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * State shared by the tasks of a single run
+     * */
+    private record Run(@NotNull TileRenderer renderer, int @Nullable [] order, @NotNull Thread caller, long startNanos,
+                       @NotNull AtomicInteger next, @NotNull AtomicInteger joined, @NotNull ConcurrentHashMap<Thread, Worker> workers) {
+
+        private Run(@NotNull TileRenderer renderer, int @Nullable [] order, @NotNull Thread caller, long startNanos) {
+            this(renderer, order, caller, startNanos, new AtomicInteger(), new AtomicInteger(), new ConcurrentHashMap<>());
+        }
+
+        /**
+         * @return record of the current thread. Keyed by thread rather than by {@code ForkJoinWorkerThread.getPoolIndex()},
+         * which is sparse, and may exceed the parallelism
+         * */
+        @NotNull
+        Worker worker() {
+            return workers.computeIfAbsent(Thread.currentThread(), t -> new Worker(joined.getAndIncrement()));
+        }
+    }
+
+    /**
+     * Busy time of a single thread over a run. Only written by that thread, and read once the run is joined
+     * */
+    private static final class Worker {
+
+        private final int order;
+        private long busyNanos, firstStartNanos, lastEndNanos;
+        private int tiles;
+
+        private Worker(int order) {
+            this.order = order;
+        }
+
+        private void copyTo(@NotNull Stats stats, int slot) {
+            stats.busyNanos[slot] = busyNanos;
+            stats.firstStartNanos[slot] = firstStartNanos;
+            stats.lastEndNanos[slot] = lastEndNanos;
+            stats.tiles[slot] = tiles;
+        }
+    }
+
+    /**
+     * Leaves [from, to) of a run. Every leaf claims and renders one tile
+     * */
+    private static class RangeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 4815206372981630174L;
+
+        @NotNull
+        private final Run run;
+        private final int from, to;
+
+        private RangeTask(@NotNull Run run, int from, int to) {
+            this.run = run;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                final int mid = (from + to) >>> 1;
+                invokeAll(new RangeTask(run, from, mid), new RangeTask(run, mid, to));
+                return;
+            }
+
+            final int i = run.next.getAndIncrement();
+            final int tile = run.order != null? run.order[i]: i;
+
+            final Worker worker = run.worker();
+            final long start = System.nanoTime();
+            run.renderer.render(tile);
+
+            final long end = System.nanoTime();
+            if (worker.tiles == 0) {
+                worker.firstStartNanos = start - run.startNanos;
+            }
+
+            worker.busyNanos += end - start;
+            worker.lastEndNanos = end - run.startNanos;
+            worker.tiles++;
+        }
+    }
+}
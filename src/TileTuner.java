@@ -0,0 +1,124 @@
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Tunes the tile size of the {@link TileScheduler} at runtime, across frames.
+ * <p>
+ * The size is expressed as a number of tiles per worker: the frame is cut into about {@code workers * tilesPerWorker}
+ * tiles. Too few tiles leave workers idle at the end of the frame, waiting for the last long tiles (imbalance). Too
+ * many tiles spend more time on splitting, claiming and stealing than they win back (overhead). The right number
+ * depends on the cost of a pixel, which varies by orders of magnitude between a default view and a deep boundary
+ * zoom, so no constant fits.
+ * <p>
+ * Both losses are measured on every frame, and smoothed over frames. Every {@link #SETTLE_FRAMES} frames at most, the
+ * number of tiles is doubled when imbalance dominates, or halved when overhead dominates.
+ * */
+public final class TileTuner {
+
+    public static final int MIN_TILES_PER_WORKER = 1;
+    public static final int MAX_TILES_PER_WORKER = 256;
+    public static final int DEFAULT_TILES_PER_WORKER = 32;
+
+    /**
+     * Losses below this fraction of the worker time are left alone
+     * */
+    public static final double LOSS_THRESHOLD = 0.03;
+
+    /**
+     * Frames to wait after a change before the next one, so that the smoothed losses reflect the new size
+     * */
+    public static final int SETTLE_FRAMES = 3;
+
+    /**
+     * Weight of the latest frame in the smoothed losses
+     * */
+    private static final double SMOOTHING = 0.4;
+
+    private volatile int mTilesPerWorker = DEFAULT_TILES_PER_WORKER;
+    private volatile boolean mAuto = true;
+
+    private double mOverhead = -1;      // smoothed overhead fraction, -ve until the first frame
+    private double mImbalance;          // smoothed imbalance fraction
+    private int mFramesSinceChange;
+
+    public int getTilesPerWorker() {
+        return mTilesPerWorker;
+    }
+
+    public boolean isAuto() {
+        return mAuto;
+    }
+
+    public double getOverhead() {
+        return Math.max(0, mOverhead);
+    }
+
+    public double getImbalance() {
+        return mImbalance;
+    }
+
+    /**
+     * Switches to auto-tuning, starting from the current size
+     * */
+    public void setAuto() {
+        mAuto = true;
+        resetLosses();
+    }
+
+    /**
+     * Fixes the number of tiles per worker, which turns auto-tuning off
+     *
+     * @throws IllegalArgumentException if out of range [{@link #MIN_TILES_PER_WORKER}, {@link #MAX_TILES_PER_WORKER}]
+     * */
+    public void setTilesPerWorker(int tilesPerWorker) throws IllegalArgumentException {
+        if (tilesPerWorker < MIN_TILES_PER_WORKER || tilesPerWorker > MAX_TILES_PER_WORKER)
+            throw new IllegalArgumentException(String.format("Tiles per worker must be in range [%d, %d], given: %d", MIN_TILES_PER_WORKER, MAX_TILES_PER_WORKER, tilesPerWorker));
+
+        mAuto = false;
+        mTilesPerWorker = tilesPerWorker;
+        resetLosses();
+    }
+
+    private void resetLosses() {
+        mOverhead = -1;
+        mImbalance = 0;
+        mFramesSinceChange = 0;
+    }
+
+    /**
+     * Accounts for a rendered frame, and adjusts the size of the tiles of the next ones if auto-tuning
+     *
+     * @return whether the size changed
+     * */
+    public boolean update(@NotNull TileScheduler.Stats stats) {
+        if (stats.workers() <= 1 || stats.totalTiles() == 0)
+            return false;
+
+        final double overhead = stats.overheadFraction();
+        final double imbalance = stats.imbalanceFraction();
+        if (mOverhead < 0) {
+            mOverhead = overhead;
+            mImbalance = imbalance;
+        } else {
+            mOverhead += (overhead - mOverhead) * SMOOTHING;
+            mImbalance += (imbalance - mImbalance) * SMOOTHING;
+        }
+
+        if (!mAuto || ++mFramesSinceChange < SETTLE_FRAMES)
+            return false;
+
+        final int cur = mTilesPerWorker;
+        int next = cur;
+        if (mImbalance > LOSS_THRESHOLD && mImbalance > 2 * mOverhead) {
+            next = Math.min(MAX_TILES_PER_WORKER, cur * 2);
+        } else if (mOverhead > LOSS_THRESHOLD && mOverhead > 2 * mImbalance) {
+            next = Math.max(MIN_TILES_PER_WORKER, cur / 2);
+        }
+
+        if (next == cur)
+            return false;
+
+        mTilesPerWorker = next;
+        mFramesSinceChange = 0;
+        return true;
+    }
+}